@@ -9,10 +9,10 @@ CREATE DATABASE sop_financial_system;
 -- Conectar ao banco criado
 \c sop_financial_system;
 
--- 2. Criação das Tabelas
+-- 2. Criação das Tabelas (mesmos nomes das entidades JPA)
 
 -- Tabela de Despesas
-CREATE TABLE despesas (
+CREATE TABLE despesa (
     id BIGSERIAL PRIMARY KEY,
     numero_protocolo VARCHAR(20) UNIQUE NOT NULL,
     tipo_despesa VARCHAR(50) NOT NULL CHECK (tipo_despesa IN ('Obra de Edificação', 'Obra de Rodovias', 'Outros')),
@@ -22,21 +22,24 @@ CREATE TABLE despesas (
     descricao TEXT NOT NULL,
     valor DECIMAL(15,2) NOT NULL CHECK (valor > 0),
     status VARCHAR(30) DEFAULT 'Aguardando Empenho' CHECK (status IN ('Aguardando Empenho', 'Parcialmente Empenhada', 'Aguardando Pagamento', 'Parcialmente Paga', 'Paga')),
+    total_empenhado DECIMAL(15,2) NOT NULL DEFAULT 0,
+    total_pago DECIMAL(15,2) NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 -- Tabela de Empenhos
-CREATE TABLE empenhos (
+CREATE TABLE empenho (
     id BIGSERIAL PRIMARY KEY,
     numero_empenho VARCHAR(12) UNIQUE NOT NULL,
     data_empenho DATE NOT NULL,
     valor DECIMAL(15,2) NOT NULL CHECK (valor > 0),
     observacao TEXT,
+    total_pago DECIMAL(15,2) NOT NULL DEFAULT 0,
     despesa_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (despesa_id) REFERENCES despesas(id) ON DELETE RESTRICT
+    FOREIGN KEY (despesa_id) REFERENCES despesa(id) ON DELETE RESTRICT
 );
 
 -- Tabela de Pagamentos
@@ -49,22 +52,94 @@ CREATE TABLE pagamentos (
     empenho_id BIGINT NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (empenho_id) REFERENCES empenhos(id) ON DELETE RESTRICT
+    FOREIGN KEY (empenho_id) REFERENCES empenho(id) ON DELETE RESTRICT
 );
 
+-- Log de eventos de domínio (somente inserção): cada alteração de despesa, empenho ou pagamento
+-- grava um evento com o estado resultante da despesa afetada
+CREATE TABLE evento_dominio (
+    id BIGINT PRIMARY KEY,
+    tipo VARCHAR(40) NOT NULL,
+    entidade_id BIGINT NOT NULL,
+    despesa_id BIGINT NOT NULL,
+    dados TEXT NOT NULL,
+    registrado_em TIMESTAMP NOT NULL
+);
+
+-- Modelo de leitura das listagens e do dashboard, projetado a partir do log de eventos
+-- (reconstruível por POST /api/projecao/reconstrucao)
+CREATE TABLE despesa_resumo (
+    despesa_id BIGINT PRIMARY KEY,
+    numero_protocolo VARCHAR(20) NOT NULL,
+    tipo_despesa VARCHAR(50) NOT NULL,
+    data_protocolo TIMESTAMP NOT NULL,
+    data_vencimento TIMESTAMP NOT NULL,
+    credor VARCHAR(255) NOT NULL,
+    descricao TEXT NOT NULL,
+    valor DECIMAL(15,2) NOT NULL,
+    total_empenhado DECIMAL(15,2) NOT NULL DEFAULT 0,
+    total_pago DECIMAL(15,2) NOT NULL DEFAULT 0,
+    status VARCHAR(30) NOT NULL,
+    quantidade_empenhos INTEGER NOT NULL DEFAULT 0,
+    quantidade_pagamentos INTEGER NOT NULL DEFAULT 0,
+    data_ultimo_pagamento DATE,
+    ultimo_evento BIGINT NOT NULL
+);
+
+-- Marcas dos processamentos incrementais (ex.: vencimento-despesas, até onde a varredura de
+-- despesas vencidas já avançou em data_vencimento)
+CREATE TABLE marca_processamento (
+    nome VARCHAR(60) PRIMARY KEY,
+    posicao TIMESTAMP NOT NULL,
+    ultimo_id BIGINT NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL
+);
+
+-- Respostas de POST com Idempotency-Key, gravadas só com app.idempotencia.persistir=true
+-- (chave = rota + chave do cliente); as mais antigas que a retenção são removidas de hora em hora
+CREATE TABLE resposta_idempotente (
+    chave VARCHAR(400) PRIMARY KEY,
+    impressao VARCHAR(64) NOT NULL,
+    status INTEGER NOT NULL,
+    tipo_conteudo VARCHAR(100),
+    localizacao VARCHAR(200),
+    corpo BYTEA NOT NULL,
+    criado_em TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_resposta_idempotente_criado_em ON resposta_idempotente(criado_em);
+
+-- Sequências usadas pela aplicação para gerar os ids (alocação em blocos de 50,
+-- necessária para o batching de inserts do Hibernate)
+CREATE SEQUENCE despesa_seq INCREMENT BY 50;
+CREATE SEQUENCE empenho_seq INCREMENT BY 50;
+CREATE SEQUENCE pagamento_seq INCREMENT BY 50;
+-- Eventos: um valor por vez, pedido sob o bloqueio da despesa (ordem de aplicação na projeção)
+CREATE SEQUENCE evento_ordem_seq;
+
 -- 3. Criação de Índices para Performance
-CREATE INDEX idx_despesas_numero_protocolo ON despesas(numero_protocolo);
-CREATE INDEX idx_despesas_status ON despesas(status);
-CREATE INDEX idx_despesas_data_vencimento ON despesas(data_vencimento);
+CREATE INDEX idx_despesas_numero_protocolo ON despesa(numero_protocolo);
+CREATE INDEX idx_despesas_status ON despesa(status);
+-- Também atende à varredura incremental de despesas vencidas (intervalo a partir da marca, em ordem de id)
+CREATE INDEX idx_despesa_vencimento_id ON despesa(data_vencimento, id);
+CREATE INDEX idx_despesas_credor ON despesa(credor varchar_pattern_ops, id);
+CREATE INDEX idx_despesas_tipo ON despesa(tipo_despesa, id);
 
-CREATE INDEX idx_empenhos_numero ON empenhos(numero_empenho);
-CREATE INDEX idx_empenhos_despesa_id ON empenhos(despesa_id);
-CREATE INDEX idx_empenhos_data ON empenhos(data_empenho);
+CREATE INDEX idx_empenhos_numero ON empenho(numero_empenho);
+CREATE INDEX idx_empenhos_despesa_id ON empenho(despesa_id);
+CREATE INDEX idx_empenhos_data ON empenho(data_empenho);
 
 CREATE INDEX idx_pagamentos_numero ON pagamentos(numero_pagamento);
 CREATE INDEX idx_pagamentos_empenho_id ON pagamentos(empenho_id);
 CREATE INDEX idx_pagamentos_data ON pagamentos(data_pagamento);
 
+CREATE INDEX idx_evento_dominio_despesa ON evento_dominio(despesa_id, id);
+CREATE INDEX idx_evento_dominio_registrado_em ON evento_dominio(registrado_em);
+
+CREATE INDEX idx_despesa_resumo_status ON despesa_resumo(status, despesa_id);
+CREATE INDEX idx_despesa_resumo_tipo ON despesa_resumo(tipo_despesa, despesa_id);
+CREATE INDEX idx_despesa_resumo_vencimento ON despesa_resumo(data_vencimento);
+CREATE INDEX idx_despesa_resumo_credor ON despesa_resumo(credor varchar_pattern_ops, despesa_id);
+
 -- 4. Triggers para atualização automática de timestamps
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
@@ -74,22 +149,22 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
-CREATE TRIGGER update_despesas_updated_at BEFORE UPDATE ON despesas 
+CREATE TRIGGER update_despesas_updated_at BEFORE UPDATE ON despesa 
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
-CREATE TRIGGER update_empenhos_updated_at BEFORE UPDATE ON empenhos 
+CREATE TRIGGER update_empenhos_updated_at BEFORE UPDATE ON empenho 
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
 CREATE TRIGGER update_pagamentos_updated_at BEFORE UPDATE ON pagamentos 
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
 -- 5. Dados de Exemplo para Testes
-INSERT INTO despesas (numero_protocolo, tipo_despesa, data_protocolo, data_vencimento, credor, descricao, valor) VALUES
+INSERT INTO despesa (numero_protocolo, tipo_despesa, data_protocolo, data_vencimento, credor, descricao, valor) VALUES
 ('43022.123456/2025-01', 'Obra de Edificação', '2025-01-15 10:30:00', '2025-06-15', 'Construtora ABC Ltda', 'Construção de escola municipal', 500000.00),
 ('43023.789012/2025-02', 'Obra de Rodovias', '2025-01-20 14:15:00', '2025-08-20', 'Pavimentadora XYZ S.A.', 'Pavimentação da Rua Principal', 300000.00),
 ('43024.345678/2025-03', 'Outros', '2025-01-25 09:45:00', '2025-05-25', 'Fornecedor Materiais Ltda', 'Aquisição de equipamentos', 150000.00);
 
-INSERT INTO empenhos (numero_empenho, data_empenho, valor, observacao, despesa_id) VALUES
+INSERT INTO empenho (numero_empenho, data_empenho, valor, observacao, despesa_id) VALUES
 ('2025NE0001', '2025-01-16', 200000.00, 'Primeira parcela da obra', 1),
 ('2025NE0002', '2025-01-21', 100000.00, 'Pavimentação - primeira etapa', 2),
 ('2025NE0003', '2025-01-26', 150000.00, 'Equipamentos completos', 3);
@@ -98,47 +173,36 @@ INSERT INTO pagamentos (numero_pagamento, data_pagamento, valor, observacao, emp
 ('2025NP0001', '2025-01-17', 100000.00, 'Pagamento inicial da obra', 1),
 ('2025NP0002', '2025-01-22', 50000.00, 'Parcial da pavimentação', 2);
 
--- 6. Views Úteis
-
--- View para relatório completo de despesas
-CREATE VIEW vw_despesas_completas AS
-SELECT 
-    d.id,
-    d.numero_protocolo,
-    d.tipo_despesa,
-    d.data_protocolo,
-    d.data_vencimento,
-    d.credor,
-    d.descricao,
-    d.valor as valor_despesa,
-    d.status,
-    COALESCE(SUM(e.valor), 0) as total_empenhado,
-    COALESCE(SUM(p.valor), 0) as total_pago,
-    (d.valor - COALESCE(SUM(e.valor), 0)) as saldo_empenhar,
-    (COALESCE(SUM(e.valor), 0) - COALESCE(SUM(p.valor), 0)) as saldo_pagar
-FROM despesas d
-LEFT JOIN empenhos e ON d.id = e.despesa_id
-LEFT JOIN pagamentos p ON e.id = p.empenho_id
-GROUP BY d.id, d.numero_protocolo, d.tipo_despesa, d.data_protocolo, 
-         d.data_vencimento, d.credor, d.descricao, d.valor, d.status;
-
--- View para controle de empenhos
-CREATE VIEW vw_empenhos_detalhados AS
-SELECT 
-    e.id,
-    e.numero_empenho,
-    e.data_empenho,
-    e.valor as valor_empenho,
-    e.observacao,
-    d.numero_protocolo,
-    d.credor,
-    COALESCE(SUM(p.valor), 0) as total_pago,
-    (e.valor - COALESCE(SUM(p.valor), 0)) as saldo_pagar
-FROM empenhos e
-INNER JOIN despesas d ON e.despesa_id = d.id
-LEFT JOIN pagamentos p ON e.id = p.empenho_id
-GROUP BY e.id, e.numero_empenho, e.data_empenho, e.valor, e.observacao,
-         d.numero_protocolo, d.credor;
+-- Posiciona as sequências após os ids já existentes (também necessário ao migrar bases antigas).
+-- O otimizador pooled do Hibernate usa o valor lido como limite superior do bloco, daí o + 50
+SELECT setval('despesa_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM despesa), false);
+SELECT setval('empenho_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM empenho), false);
+SELECT setval('pagamento_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM pagamentos), false);
+
+-- Totais materializados dos dados de exemplo (mantidos pela aplicação a cada escrita)
+UPDATE empenho e SET total_pago = COALESCE((SELECT SUM(p.valor) FROM pagamentos p WHERE p.empenho_id = e.id), 0);
+
+UPDATE despesa d SET
+    total_empenhado = COALESCE((SELECT SUM(e.valor) FROM empenho e WHERE e.despesa_id = d.id), 0),
+    total_pago = COALESCE((SELECT SUM(e.total_pago) FROM empenho e WHERE e.despesa_id = d.id), 0);
+
+UPDATE despesa SET status = CASE
+    WHEN total_empenhado = 0 THEN 'Aguardando Empenho'
+    WHEN total_empenhado < valor THEN 'Parcialmente Empenhada'
+    WHEN total_pago = 0 THEN 'Aguardando Pagamento'
+    WHEN total_pago < valor THEN 'Parcialmente Paga'
+    ELSE 'Paga'
+END;
+
+-- 6. Views dos relatórios: as mesmas definições que a aplicação aplica na subida
+-- (views materializadas do dashboard e as views de consulta vw_despesas_completas / vw_empenhos_detalhados)
+\ir ../src/main/resources/db/relatorios.sql
+
+-- Colunas e índices da busca textual (GET /api/busca)
+\ir ../src/main/resources/db/busca.sql
+
+-- Tabelas do arquivo das despesas pagas, particionadas por ano (GET /api/arquivo)
+\ir ../src/main/resources/db/arquivo.sql
 
 -- 7. Consultas de Validação
 
@@ -146,8 +210,8 @@ GROUP BY e.id, e.numero_empenho, e.data_empenho, e.valor, e.observacao,
 SELECT 'Despesas com empenhos acima do valor' as verificacao, COUNT(*) as problemas
 FROM (
     SELECT d.id 
-    FROM despesas d
-    LEFT JOIN empenhos e ON d.id = e.despesa_id
+    FROM despesa d
+    LEFT JOIN empenho e ON d.id = e.despesa_id
     GROUP BY d.id, d.valor
     HAVING COALESCE(SUM(e.valor), 0) > d.valor
 ) as problemas
@@ -157,11 +221,26 @@ UNION ALL
 SELECT 'Empenhos com pagamentos acima do valor' as verificacao, COUNT(*) as problemas
 FROM (
     SELECT e.id
-    FROM empenhos e
+    FROM empenho e
     LEFT JOIN pagamentos p ON e.id = p.empenho_id
     GROUP BY e.id, e.valor
     HAVING COALESCE(SUM(p.valor), 0) > e.valor
-) as problemas;
+) as problemas
+
+UNION ALL
+
+SELECT 'Despesas com totais materializados divergentes' as verificacao, COUNT(*) as problemas
+FROM despesa d
+WHERE d.total_empenhado <> COALESCE((SELECT SUM(e.valor) FROM empenho e WHERE e.despesa_id = d.id), 0)
+   OR d.total_pago <> COALESCE((SELECT SUM(p.valor) FROM pagamentos p
+                                JOIN empenho e ON e.id = p.empenho_id
+                                WHERE e.despesa_id = d.id), 0)
+
+UNION ALL
+
+SELECT 'Empenhos com total pago materializado divergente' as verificacao, COUNT(*) as problemas
+FROM empenho e
+WHERE e.total_pago <> COALESCE((SELECT SUM(p.valor) FROM pagamentos p WHERE p.empenho_id = e.id), 0);
 
 -- =============================================
 -- FIM DOS SCRIPTS
@@ -0,0 +1,124 @@
+package com.sop.financialsystem.benchmark;
+
+import com.sop.financialsystem.FinancialSystemApplication;
+import com.sop.financialsystem.service.FiltroNumerosService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sobe o contexto Spring contra H2 (perfil "benchmark") e popula a base com N despesas,
+// cada uma com um empenho e um pagamento, antes de cada rodada de medições
+@State(Scope.Benchmark)
+public class AmbienteBenchmark {
+    
+    static final BigDecimal VALOR_DESPESA = new BigDecimal("10000.00");
+    static final BigDecimal VALOR_EMPENHO = new BigDecimal("5000.00");
+    static final BigDecimal VALOR_PAGAMENTO = new BigDecimal("1000.00");
+    
+    private static final int LOTE = 10_000;
+    private static final String[] TIPOS = {"Obra de Edificação", "Obra de Rodovias", "Outros"};
+    
+    @Param({"1000", "100000", "1000000"})
+    public int despesas;
+    
+    private ConfigurableApplicationContext contexto;
+    private Statistics estatisticas;
+    
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(FinancialSystemApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .run();
+        estatisticas = contexto.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        popular(contexto.getBean(JdbcTemplate.class));
+        // A base é populada por JDBC depois da subida: recarrega os filtros de números
+        contexto.getBean(FiltroNumerosService.class).carregar();
+    }
+    
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+    
+    // Total de statements preparados pelo Hibernate desde o início da rodada
+    long statements() {
+        return estatisticas.getPrepareStatementCount();
+    }
+    
+    private void popular(JdbcTemplate jdbc) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDate hoje = agora.toLocalDate();
+        
+        for (int inicio = 1; inicio <= despesas; inicio += LOTE) {
+            int fim = Math.min(inicio + LOTE - 1, despesas);
+            List<Object[]> linhasDespesa = new ArrayList<>();
+            List<Object[]> linhasEmpenho = new ArrayList<>();
+            List<Object[]> linhasPagamento = new ArrayList<>();
+            List<Object[]> linhasResumo = new ArrayList<>();
+            
+            for (long id = inicio; id <= fim; id++) {
+                linhasDespesa.add(new Object[] {
+                    id, "PROT-" + id, TIPOS[(int) (id % TIPOS.length)],
+                    Timestamp.valueOf(agora.minusDays(id % 365)), Timestamp.valueOf(agora.plusDays(id % 90)),
+                    "Credor " + (id % 500), "Despesa de benchmark " + id,
+                    VALOR_DESPESA, VALOR_EMPENHO, VALOR_PAGAMENTO, "Parcialmente Empenhada"
+                });
+                linhasEmpenho.add(new Object[] {
+                    id, "EMP-" + id, Date.valueOf(hoje), VALOR_EMPENHO, VALOR_PAGAMENTO, id
+                });
+                linhasPagamento.add(new Object[] {
+                    id, "PAG-" + id, Date.valueOf(hoje), VALOR_PAGAMENTO, id
+                });
+                linhasResumo.add(new Object[] {
+                    id, "PROT-" + id, TIPOS[(int) (id % TIPOS.length)],
+                    Timestamp.valueOf(agora.minusDays(id % 365)), Timestamp.valueOf(agora.plusDays(id % 90)),
+                    "Credor " + (id % 500), "Despesa de benchmark " + id,
+                    VALOR_DESPESA, VALOR_EMPENHO, VALOR_PAGAMENTO, "Parcialmente Empenhada", Date.valueOf(hoje)
+                });
+            }
+            
+            jdbc.batchUpdate("INSERT INTO despesa (id, numero_protocolo, tipo_despesa, data_protocolo, data_vencimento, "
+                    + "credor, descricao, valor, total_empenhado, total_pago, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    linhasDespesa);
+            jdbc.batchUpdate("INSERT INTO empenho (id, numero_empenho, data_empenho, valor, total_pago, despesa_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", linhasEmpenho);
+            jdbc.batchUpdate("INSERT INTO pagamentos (id, numero_pagamento, data_pagamento, valor, empenho_id) "
+                    + "VALUES (?, ?, ?, ?, ?)", linhasPagamento);
+            // A listagem de despesas é servida pelo modelo de leitura
+            jdbc.batchUpdate("INSERT INTO despesa_resumo (despesa_id, numero_protocolo, tipo_despesa, data_protocolo, "
+                    + "data_vencimento, credor, descricao, valor, total_empenhado, total_pago, status, "
+                    + "quantidade_empenhos, quantidade_pagamentos, data_ultimo_pagamento, ultimo_evento) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, 1, ?, 0)", linhasResumo);
+        }
+        
+        // As sequências usam allocationSize = 50: o próximo bloco começa depois dos ids já gravados
+        for (String sequencia : List.of("despesa_seq", "empenho_seq", "pagamento_seq")) {
+            jdbc.execute("ALTER SEQUENCE " + sequencia + " RESTART WITH " + (despesas + 50));
+        }
+    }
+}
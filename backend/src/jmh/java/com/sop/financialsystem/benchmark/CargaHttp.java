@@ -0,0 +1,154 @@
+package com.sop.financialsystem.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Teste de carga contra um backend em execução: N clientes concorrentes em laço fechado
+// sobre as listagens, reportando vazão e latências (p50/p99/máx). Usado para comparar o
+// modo padrão (pool de threads do Tomcat) com o perfil "virtual":
+//   mvn -P benchmark compile exec:java -Dexec.mainClass=com.sop.financialsystem.benchmark.CargaHttp \
+//       -Dexec.args="http://localhost:8080 1000 60"
+public class CargaHttp {
+    
+    private static final String[] ROTAS = {
+        "/api/despesas?limit=50", "/api/empenhos?limit=50", "/api/pagamentos?limit=50"
+    };
+    
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        
+        Histograma latencias = new Histograma();
+        AtomicLong erros = new AtomicLong();
+        long fim = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(clientes);
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            executor.submit(() -> executarCliente(http, baseUrl, cliente, fim, latencias, erros));
+        }
+        executor.shutdown();
+        executor.awaitTermination(segundos + 60L, TimeUnit.SECONDS);
+        
+        relatar(latencias, erros.get(), segundos);
+    }
+    
+    private static void executarCliente(HttpClient http, String baseUrl, int cliente, long fim,
+                                        Histograma latencias, AtomicLong erros) {
+        int i = cliente;
+        while (System.nanoTime() < fim) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ROTAS[i++ % ROTAS.length]))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    erros.incrementAndGet();
+                    continue;
+                }
+            } catch (Exception e) {
+                erros.incrementAndGet();
+                continue;
+            }
+            latencias.registrar((System.nanoTime() - inicio) / 1_000);
+        }
+    }
+    
+    private static void relatar(Histograma latencias, long erros, int segundos) {
+        long total = latencias.total();
+        System.out.printf("requisições: %d (erros: %d)%n", total, erros);
+        System.out.printf("vazão: %.1f req/s%n", (double) total / segundos);
+        if (total > 0) {
+            System.out.printf("latência p50: %.1f ms | p99: %.1f ms | máx: %.1f ms%n",
+                    latencias.percentil(0.50) / 1000.0,
+                    latencias.percentil(0.99) / 1000.0,
+                    latencias.maximo() / 1000.0);
+        }
+    }
+    
+    // Histograma de latências (µs) compartilhado pelos clientes, de tamanho fixo qualquer que seja a
+    // duração ou o número de clientes: valores abaixo de 64 µs têm balde próprio; acima, cada potência
+    // de 2 é dividida em 64 baldes (erro relativo abaixo de 1,6%). Sem alocação por requisição, para
+    // que o GC do próprio gerador não pese na cauda que ele mede
+    private static final class Histograma {
+        
+        private static final int SUBDIVISOES = 64;
+        private static final int BITS_SUBDIVISAO = 6;
+        // Potências de 2 cobertas: até 2^40 µs, muito além do timeout das requisições
+        private static final int POTENCIAS = 40 - BITS_SUBDIVISAO + 1;
+        
+        private final LongAdder[] baldes = new LongAdder[SUBDIVISOES + POTENCIAS * SUBDIVISOES];
+        private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+        
+        private Histograma() {
+            for (int i = 0; i < baldes.length; i++) {
+                baldes[i] = new LongAdder();
+            }
+        }
+        
+        void registrar(long micros) {
+            baldes[Math.min(indice(micros), baldes.length - 1)].increment();
+            maximo.accumulate(micros);
+        }
+        
+        long total() {
+            long total = 0;
+            for (LongAdder balde : baldes) {
+                total += balde.sum();
+            }
+            return total;
+        }
+        
+        long maximo() {
+            return maximo.get();
+        }
+        
+        // Limite superior do balde que contém o percentil (nunca acima do máximo observado)
+        long percentil(double fracao) {
+            long posicao = Math.max(1, (long) Math.ceil(total() * fracao));
+            long acumulado = 0;
+            for (int i = 0; i < baldes.length; i++) {
+                acumulado += baldes[i].sum();
+                if (acumulado >= posicao) {
+                    return Math.min(limiteSuperior(i), maximo());
+                }
+            }
+            return maximo();
+        }
+        
+        private static int indice(long micros) {
+            if (micros < SUBDIVISOES) {
+                return (int) Math.max(micros, 0);
+            }
+            int expoente = 63 - Long.numberOfLeadingZeros(micros);
+            int deslocamento = expoente - BITS_SUBDIVISAO;
+            return SUBDIVISOES + deslocamento * SUBDIVISOES + (int) (micros >>> deslocamento) - SUBDIVISOES;
+        }
+        
+        private static long limiteSuperior(int indice) {
+            if (indice < SUBDIVISOES) {
+                return indice;
+            }
+            int deslocamento = (indice - SUBDIVISOES) / SUBDIVISOES;
+            long sub = (indice - SUBDIVISOES) % SUBDIVISOES;
+            return ((SUBDIVISOES + sub + 1) << deslocamento) - 1;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.sop.financialsystem.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Contador auxiliar reportado pelo JMH ao lado da latência: statements SQL por iteração
+// (dividir pelo número de operações da iteração para obter consultas por chamada)
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class Consultas {
+    
+    public long statements;
+    
+    private long inicio;
+    
+    @Setup(Level.Iteration)
+    public void zerar() {
+        statements = 0;
+    }
+    
+    void antes(AmbienteBenchmark ambiente) {
+        inicio = ambiente.statements();
+    }
+    
+    void depois(AmbienteBenchmark ambiente) {
+        statements += ambiente.statements() - inicio;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sop.financialsystem.benchmark;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.DespesaFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.service.DespesaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// A listagem completa (findAll) foi substituída pela paginação por cursor: mede-se a
+// primeira página e uma página do fim da tabela, que deve custar o mesmo
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DespesaServiceBenchmark {
+    
+    private static final int LIMITE = 100;
+    
+    @Benchmark
+    public PaginaDTO<DespesaDTO> primeiraPagina(AmbienteBenchmark ambiente, Consultas consultas) {
+        consultas.antes(ambiente);
+        PaginaDTO<DespesaDTO> pagina = ambiente.bean(DespesaService.class)
+                .findPage(new DespesaFiltro(), null, LIMITE);
+        consultas.depois(ambiente);
+        return pagina;
+    }
+    
+    @Benchmark
+    public PaginaDTO<DespesaDTO> ultimaPagina(AmbienteBenchmark ambiente, Consultas consultas) {
+        consultas.antes(ambiente);
+        PaginaDTO<DespesaDTO> pagina = ambiente.bean(DespesaService.class)
+                .findPage(new DespesaFiltro(), (long) ambiente.despesas - LIMITE, LIMITE);
+        consultas.depois(ambiente);
+        return pagina;
+    }
+}
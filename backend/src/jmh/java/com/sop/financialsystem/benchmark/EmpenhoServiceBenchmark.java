@@ -0,0 +1,67 @@
+package com.sop.financialsystem.benchmark;
+
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.service.EmpenhoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmpenhoServiceBenchmark {
+    
+    // Valor pequeno o bastante para nunca estourar o saldo das despesas sorteadas
+    private static final BigDecimal VALOR_NOVO = new BigDecimal("0.01");
+    
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+    
+    @Benchmark
+    public EmpenhoDTO save(AmbienteBenchmark ambiente, Consultas consultas) {
+        EmpenhoDTO dto = new EmpenhoDTO();
+        dto.setNumeroEmpenho("BENCH-EMP-" + SEQUENCIA.incrementAndGet());
+        dto.setDataEmpenho(LocalDate.now());
+        dto.setValor(VALOR_NOVO);
+        dto.setDespesaId(sortearId(ambiente));
+        
+        consultas.antes(ambiente);
+        EmpenhoDTO salvo = ambiente.bean(EmpenhoService.class).save(dto);
+        consultas.depois(ambiente);
+        return salvo;
+    }
+    
+    // Alterna o valor de um empenho semeado entre dois valores válidos (acima do total pago)
+    @Benchmark
+    public EmpenhoDTO update(AmbienteBenchmark ambiente, Consultas consultas) {
+        long id = sortearId(ambiente);
+        EmpenhoDTO dto = new EmpenhoDTO();
+        dto.setNumeroEmpenho("EMP-" + id);
+        dto.setDataEmpenho(LocalDate.now());
+        dto.setValor(SEQUENCIA.incrementAndGet() % 2 == 0
+                ? AmbienteBenchmark.VALOR_EMPENHO
+                : AmbienteBenchmark.VALOR_EMPENHO.subtract(VALOR_NOVO));
+        dto.setDespesaId(id);
+        
+        consultas.antes(ambiente);
+        EmpenhoDTO atualizado = ambiente.bean(EmpenhoService.class).update(id, dto);
+        consultas.depois(ambiente);
+        return atualizado;
+    }
+    
+    // Despesa, empenho e pagamento semeados compartilham o mesmo id (1..N)
+    static long sortearId(AmbienteBenchmark ambiente) {
+        return ThreadLocalRandom.current().nextLong(1, ambiente.despesas + 1L);
+    }
+}
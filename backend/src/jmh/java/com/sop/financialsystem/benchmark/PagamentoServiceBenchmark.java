@@ -0,0 +1,60 @@
+package com.sop.financialsystem.benchmark;
+
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.service.PagamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PagamentoServiceBenchmark {
+    
+    private static final BigDecimal VALOR_NOVO = new BigDecimal("0.01");
+    
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+    
+    @Benchmark
+    public PagamentoDTO save(AmbienteBenchmark ambiente, Consultas consultas) {
+        PagamentoDTO dto = new PagamentoDTO();
+        dto.setNumeroPagamento("BENCH-PAG-" + SEQUENCIA.incrementAndGet());
+        dto.setDataPagamento(LocalDate.now());
+        dto.setValor(VALOR_NOVO);
+        dto.setEmpenhoId(EmpenhoServiceBenchmark.sortearId(ambiente));
+        
+        consultas.antes(ambiente);
+        PagamentoDTO salvo = ambiente.bean(PagamentoService.class).save(dto);
+        consultas.depois(ambiente);
+        return salvo;
+    }
+    
+    // Mantém o pagamento no mesmo empenho, alternando entre dois valores abaixo do saldo
+    @Benchmark
+    public PagamentoDTO update(AmbienteBenchmark ambiente, Consultas consultas) {
+        long id = EmpenhoServiceBenchmark.sortearId(ambiente);
+        PagamentoDTO dto = new PagamentoDTO();
+        dto.setNumeroPagamento("PAG-" + id);
+        dto.setDataPagamento(LocalDate.now());
+        dto.setValor(SEQUENCIA.incrementAndGet() % 2 == 0
+                ? AmbienteBenchmark.VALOR_PAGAMENTO
+                : AmbienteBenchmark.VALOR_PAGAMENTO.subtract(VALOR_NOVO));
+        dto.setEmpenhoId(id);
+        
+        consultas.antes(ambiente);
+        PagamentoDTO atualizado = ambiente.bean(PagamentoService.class).update(id, dto);
+        consultas.depois(ambiente);
+        return atualizado;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sop.financialsystem.benchmark;
+
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Custo de uma rejeição (ex.: número duplicado) lançada a "profundidade" quadros abaixo de quem a
+// trata, sem banco: RuntimeException comum, que preenche a pilha, contra RegraNegocioException, que
+// não preenche. Uma requisição passa por ~100-150 quadros de Tomcat, filtros, Spring MVC e proxies
+// até chegar ao serviço. A mensagem é a mesma nos dois casos, para medir só a pilha
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RejeicaoBenchmark {
+    
+    private static final BigDecimal TOTAL = new BigDecimal("15000.00");
+    private static final BigDecimal VALOR = new BigDecimal("10000.00");
+    
+    @Param({"pilha", "sem-pilha"})
+    public String excecao;
+    
+    @Param({"32", "128"})
+    public int profundidade;
+    
+    @Benchmark
+    public String rejeitar() {
+        try {
+            descer(profundidade);
+            return null;
+        } catch (RuntimeException e) {
+            // O tratador só usa a mensagem, como TratadorErros
+            return e.getMessage();
+        }
+    }
+    
+    private void descer(int restante) {
+        if (restante > 0) {
+            descer(restante - 1);
+            return;
+        }
+        String mensagem = String.format(
+            "O valor total dos empenhos (R$ %.2f) não pode ultrapassar o valor da despesa (R$ %.2f)",
+            TOTAL.doubleValue(), VALOR.doubleValue());
+        if ("pilha".equals(excecao)) {
+            throw new RuntimeException(mensagem);
+        }
+        throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, mensagem);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sop.financialsystem.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sop.financialsystem.dto.DespesaDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização de uma página de despesas em JSON, CBOR e Smile, sem banco: vazão em páginas/s
+// e, no início de cada rodada, o tamanho da página em bytes de cada formato
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializacaoBenchmark {
+    
+    private static final String[] TIPOS = {"Obra de Edificação", "Obra de Rodovias", "Outros"};
+    
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+    
+    @Param({"100", "500"})
+    public int itens;
+    
+    private List<DespesaDTO> pagina;
+    private ObjectWriter writer;
+    private final ByteArrayOutputStream saida = new ByteArrayOutputStream(1 << 20);
+    
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        // Mesma configuração do ObjectMapper da aplicação (Spring Boot desliga datas como timestamp)
+        writer = Jackson2ObjectMapperBuilder.json()
+                .factory(fabrica())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+        
+        LocalDateTime agora = LocalDateTime.now();
+        pagina = new ArrayList<>(itens);
+        for (long id = 1; id <= itens; id++) {
+            pagina.add(new DespesaDTO(id, "PROT-" + id, TIPOS[(int) (id % TIPOS.length)],
+                agora.minusDays(id % 365), agora.plusDays(id % 90), "Credor " + (id % 500),
+                "Despesa de benchmark " + id, new BigDecimal("10000.00"), new BigDecimal("5000.00"),
+                new BigDecimal("1234.56"), "Parcialmente Empenhada", 1, 1, LocalDate.now()));
+        }
+        
+        System.out.printf("%n%s, %d itens: %d bytes por página%n", formato, itens, serializar());
+    }
+    
+    private JsonFactory fabrica() {
+        return switch (formato) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+    
+    // Grava num buffer reaproveitado, como na resposta HTTP; retorna o tamanho em bytes
+    @Benchmark
+    public int serializar() throws IOException {
+        saida.reset();
+        writer.writeValue(saida, pagina);
+        return saida.size();
+    }
+}
@@ -0,0 +1,56 @@
+-- Tabelas do arquivo para os benchmarks: mesmas colunas de db/arquivo.sql, sem particionamento (H2)
+CREATE TABLE IF NOT EXISTS despesa_arquivo (
+    id BIGINT NOT NULL,
+    numero_protocolo VARCHAR(255) NOT NULL,
+    tipo_despesa VARCHAR(255) NOT NULL,
+    data_protocolo TIMESTAMP NOT NULL,
+    data_vencimento TIMESTAMP NOT NULL,
+    credor VARCHAR(255) NOT NULL,
+    descricao TEXT NOT NULL,
+    valor NUMERIC(15,2) NOT NULL,
+    total_empenhado NUMERIC(15,2) NOT NULL,
+    total_pago NUMERIC(15,2) NOT NULL,
+    status VARCHAR(30) NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    arquivado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ano INTEGER NOT NULL,
+    PRIMARY KEY (ano, id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_despesa_arquivo_id ON despesa_arquivo (id);
+CREATE INDEX IF NOT EXISTS idx_despesa_arquivo_numero ON despesa_arquivo (numero_protocolo);
+
+CREATE TABLE IF NOT EXISTS empenho_arquivo (
+    id BIGINT NOT NULL,
+    numero_empenho VARCHAR(255) NOT NULL,
+    data_empenho DATE NOT NULL,
+    valor NUMERIC(15,2) NOT NULL,
+    observacao TEXT,
+    total_pago NUMERIC(15,2) NOT NULL,
+    despesa_id BIGINT NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    ano INTEGER NOT NULL,
+    PRIMARY KEY (ano, id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_empenho_arquivo_despesa ON empenho_arquivo (despesa_id);
+CREATE INDEX IF NOT EXISTS idx_empenho_arquivo_numero ON empenho_arquivo (numero_empenho);
+
+CREATE TABLE IF NOT EXISTS pagamento_arquivo (
+    id BIGINT NOT NULL,
+    numero_pagamento VARCHAR(255) NOT NULL,
+    data_pagamento DATE,
+    valor NUMERIC(15,2),
+    observacao VARCHAR(255),
+    empenho_id BIGINT NOT NULL,
+    despesa_id BIGINT NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    ano INTEGER NOT NULL,
+    PRIMARY KEY (ano, id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_pagamento_arquivo_despesa ON pagamento_arquivo (despesa_id);
+CREATE INDEX IF NOT EXISTS idx_pagamento_arquivo_numero ON pagamento_arquivo (numero_pagamento);
@@ -1,14 +1,18 @@
 package com.sop.financialsystem;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class FinancialSystemApplication {
+    
+    private static final Logger log = LoggerFactory.getLogger(FinancialSystemApplication.class);
 
     public static void main(String[] args) {
-        System.out.println("🚀 Iniciando Sistema Financeiro SOP...");
+        log.info("Iniciando Sistema Financeiro SOP...");
         SpringApplication.run(FinancialSystemApplication.class, args);
-        System.out.println("✅ Sistema iniciado! Acesse: http://localhost:8080/api/test");
+        log.info("Sistema iniciado! Acesse: http://localhost:8080/api/test");
     }
 }
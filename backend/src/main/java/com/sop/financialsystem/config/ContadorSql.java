@@ -0,0 +1,24 @@
+package com.sop.financialsystem.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os statements SQL preparados pelo Hibernate na thread atual; registrado em
+// hibernate.session_factory.statement_inspector e lido por MetricasRequisicaoFilter
+public class ContadorSql implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+    
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+    
+    static void zerar() {
+        CONTADOR.get()[0] = 0;
+    }
+    
+    static int total() {
+        return CONTADOR.get()[0];
+    }
+}
@@ -0,0 +1,220 @@
+package com.sop.financialsystem.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialsystem.dto.ErroDTO;
+import com.sop.financialsystem.entity.RespostaIdempotente;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// POST com cabeçalho Idempotency-Key nas rotas de app.idempotencia.rotas: a primeira requisição
+// com a chave é executada e sua resposta guardada; as seguintes (retentativas do cliente) recebem a
+// mesma resposta, com Idempotent-Replayed: true, sem passar pelos controllers e serviços. Sem o
+// cabeçalho, a requisição segue normalmente
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+    
+    private static final String CABECALHO = "Idempotency-Key";
+    private static final String REPETIDA = "Idempotent-Replayed";
+    
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.idempotencia.rotas:/api/despesas,/api/empenhos,/api/pagamentos,/api/pagamentos/ingestao}")
+    private List<String> rotas;
+    
+    // Quanto uma requisição repetida espera pela execução em andamento antes de responder 409
+    @Value("${app.idempotencia.espera-ms:10000}")
+    private long esperaMs;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(CABECALHO) == null ||
+            !rotas.contains(request.getRequestURI());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String chave = request.getHeader(CABECALHO);
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            escreverErro(response, CodigoErro.DADOS_INVALIDOS,
+                CABECALHO + " deve ter de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+        
+        // O corpo é lido aqui para a impressão e entregue de novo ao controller
+        byte[] corpo = StreamUtils.copyToByteArray(request.getInputStream());
+        String impressao = impressao(corpo);
+        String escopo = request.getRequestURI() + " " + chave;
+        
+        CompletableFuture<RespostaIdempotente> execucao = new CompletableFuture<>();
+        Optional<CompletableFuture<RespostaIdempotente>> anterior = idempotenciaService.reservar(escopo, execucao);
+        if (anterior.isPresent()) {
+            repetir(anterior.get(), impressao, response);
+            return;
+        }
+        
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new CorpoLido(request, corpo), resposta);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotenciaService.falhar(escopo, execucao, e);
+            throw e;
+        }
+        idempotenciaService.concluir(escopo, execucao, new RespostaIdempotente(escopo, impressao,
+            resposta.getStatus(), resposta.getContentType(), resposta.getHeader(HttpHeaders.LOCATION),
+            resposta.getContentAsByteArray()));
+        resposta.copyBodyToResponse();
+    }
+    
+    private void repetir(CompletableFuture<RespostaIdempotente> execucao, String impressao, HttpServletResponse response)
+            throws IOException {
+        RespostaIdempotente anterior;
+        try {
+            anterior = execucao.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            escreverErro(response, CodigoErro.REQUISICAO_EM_ANDAMENTO, "Requisição interrompida, tente novamente");
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            // A execução original falhou (a chave foi liberada) ou ainda não terminou
+            escreverErro(response, CodigoErro.REQUISICAO_EM_ANDAMENTO,
+                "Requisição com a mesma " + CABECALHO + " em andamento, tente novamente");
+            return;
+        }
+        
+        if (!anterior.getImpressao().equals(impressao)) {
+            escreverErro(response, CodigoErro.CHAVE_IDEMPOTENCIA_REUTILIZADA,
+                CABECALHO + " já usada em uma requisição com outro conteúdo");
+            return;
+        }
+        response.setStatus(anterior.getStatus());
+        if (anterior.getTipoConteudo() != null) {
+            response.setContentType(anterior.getTipoConteudo());
+        }
+        if (anterior.getLocalizacao() != null) {
+            response.setHeader(HttpHeaders.LOCATION, anterior.getLocalizacao());
+        }
+        response.setHeader(REPETIDA, "true");
+        response.setContentLength(anterior.getCorpo().length);
+        response.getOutputStream().write(anterior.getCorpo());
+    }
+    
+    // Respondido aqui, fora do DispatcherServlet, no mesmo formato do TratadorErros
+    private void escreverErro(HttpServletResponse response, CodigoErro codigo, String mensagem) throws IOException {
+        response.setStatus(codigo.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErroDTO(codigo.name(), mensagem));
+    }
+    
+    private static String impressao(byte[] corpo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Requisição com o corpo já lido, devolvido a cada leitura
+    private static class CorpoLido extends HttpServletRequestWrapper {
+        
+        private final byte[] corpo;
+        
+        CorpoLido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // O corpo já está em memória: tudo está disponível de imediato
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return corpo.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return corpo.length;
+        }
+    }
+}
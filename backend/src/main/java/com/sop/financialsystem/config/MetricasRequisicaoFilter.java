@@ -0,0 +1,49 @@
+package com.sop.financialsystem.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Registra quantos statements SQL cada requisição executou (http.server.requests.sql),
+// agrupado pelo padrão da rota, para detectar regressões N+1 por endpoint
+@Component
+public class MetricasRequisicaoFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger(MetricasRequisicaoFilter.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContadorSql.zerar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (rota != null) {
+                int statements = ContadorSql.total();
+                DistributionSummary.builder("http.server.requests.sql")
+                        .description("Statements SQL executados por requisição")
+                        .tag("method", request.getMethod())
+                        .tag("uri", rota.toString())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(statements);
+                log.debug("{} {} executou {} statements SQL", request.getMethod(), rota, statements);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.service.ArquivamentoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// Leitura das despesas arquivadas; os demais endpoints enxergam apenas o conjunto ativo
+@RestController
+@RequestMapping("/api/arquivo")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ArquivoController {
+    
+    @Autowired
+    private ArquivamentoService arquivamentoService;
+    
+    // Despesas arquivadas de um ano (ano do protocolo), com a mesma paginação por cursor de /api/despesas
+    @GetMapping("/despesas")
+    public ResponseEntity<List<DespesaDTO>> getDespesas(@RequestParam int ano,
+                                                        @RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        PaginaDTO<DespesaDTO> pagina = arquivamentoService.consultarDespesas(ano, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getProximoCursor().toString());
+        }
+        return response.body(pagina.getItens());
+    }
+    
+    @GetMapping("/despesas/{id}")
+    public ResponseEntity<DespesaDTO> getDespesaById(@PathVariable Long id) {
+        return arquivamentoService.consultarDespesa(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/despesas/{id}/empenhos")
+    public ResponseEntity<List<EmpenhoDTO>> getEmpenhos(@PathVariable Long id) {
+        return ResponseEntity.ok(arquivamentoService.consultarEmpenhos(id));
+    }
+    
+    @GetMapping("/despesas/{id}/pagamentos")
+    public ResponseEntity<List<PagamentoDTO>> getPagamentos(@PathVariable Long id) {
+        return ResponseEntity.ok(arquivamentoService.consultarPagamentos(id));
+    }
+    
+    // Executa o arquivamento agora, sem esperar o agendamento noturno
+    @PostMapping("/execucao")
+    public ResponseEntity<Map<String, Long>> arquivar() {
+        return ResponseEntity.ok(Map.of("despesas", arquivamentoService.arquivar()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.ResultadoBuscaDTO;
+import com.sop.financialsystem.service.BuscaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/busca")
+@CrossOrigin(origins = "http://localhost:3000")
+public class BuscaController {
+    
+    @Autowired
+    private BuscaService buscaService;
+    
+    // Resultados em ordem de relevância; a posição do próximo resultado vem em X-Next-Cursor
+    @GetMapping
+    public ResponseEntity<List<ResultadoBuscaDTO>> buscar(@RequestParam String q,
+                                                          @RequestParam(required = false) List<String> tipos,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        PaginaDTO<ResultadoBuscaDTO> pagina = buscaService.buscar(q, tipos, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getProximoCursor().toString());
+        }
+        return response.body(pagina.getItens());
+    }
+}
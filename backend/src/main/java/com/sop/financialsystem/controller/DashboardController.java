@@ -0,0 +1,22 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.dto.ResumoDashboardDTO;
+import com.sop.financialsystem.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000")
+public class DashboardController {
+    
+    @Autowired
+    private DashboardService dashboardService;
+    
+    @GetMapping("/resumo")
+    public ResponseEntity<ResumoDashboardDTO> getResumo(@RequestParam(defaultValue = "10") int credores,
+                                                        @RequestParam(defaultValue = "12") int meses) {
+        return ResponseEntity.ok(dashboardService.resumo(credores, meses));
+    }
+}
@@ -1,12 +1,20 @@
 package com.sop.financialsystem.controller;
 
 import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.DespesaFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
 import com.sop.financialsystem.service.DespesaService;
+import com.sop.financialsystem.service.ExportacaoService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,60 +26,73 @@ public class DespesaController {
     @Autowired
     private DespesaService despesaService;
     
+    @Autowired
+    private ExportacaoService exportacaoService;
+    
+    // Paginação por cursor: o id do último item retornado vem no cabeçalho X-Next-Cursor
+    // e deve ser enviado em "after" para buscar a próxima página
     @GetMapping
-    public ResponseEntity<List<DespesaDTO>> getAllDespesas() {
-        try {
-            List<DespesaDTO> despesas = despesaService.findAll();
-            return ResponseEntity.ok(despesas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<List<DespesaDTO>> getAllDespesas(@ModelAttribute DespesaFiltro filtro,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           WebRequest request) {
+        // Polling do front-end: se o cliente já tem esta versão da página, 304 sem ler nem serializar os itens
+        if (request.checkNotModified(Representacao.etag(despesaService.versaoPagina(filtro, after, limit).getEtag(), request))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
+        }
+        PaginaDTO<DespesaDTO> pagina = despesaService.findPage(filtro, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(Representacao.VARY);
+        if (pagina.getProximoCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getProximoCursor().toString());
+        }
+        return response.body(pagina.getItens());
+    }
+    
+    // Exportação completa em NDJSON, CSV, CBOR ou Smile, escrita direto na resposta à medida que é lida do banco
+    @GetMapping("/exportacao")
+    public void exportarDespesas(@RequestParam(defaultValue = ExportacaoService.NDJSON) String formato,
+                                 HttpServletResponse response) throws IOException {
+        String tipoConteudo = ExportacaoService.tipoConteudo(formato);
+        if (tipoConteudo == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Formato de exportação inválido: " + formato);
+            return;
         }
+        
+        response.setContentType(tipoConteudo);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"despesas." + formato + "\"");
+        exportacaoService.exportarDespesas(formato, response.getOutputStream());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<DespesaDTO> getDespesaById(@PathVariable Long id) {
-        try {
-            Optional<DespesaDTO> despesa = despesaService.findById(id);
-            return despesa.map(ResponseEntity::ok)
-                         .orElse(ResponseEntity.notFound().build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<DespesaDTO> getDespesaById(@PathVariable Long id, WebRequest request) {
+        // ETag e Last-Modified vêm de uma consulta às colunas de versão; o DTO só é lido quando mudou
+        Optional<VersaoDTO> versao = despesaService.versao(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(Representacao.etag(versao.get().getEtag(), request), versao.get().getUltimaAlteracao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
         }
+        Optional<DespesaDTO> despesa = despesaService.findById(id);
+        return despesa.map(dto -> ResponseEntity.ok().varyBy(Representacao.VARY).body(dto))
+                     .orElse(ResponseEntity.notFound().build());
     }
     
     @PostMapping
-    public ResponseEntity<?> createDespesa(@RequestBody DespesaDTO despesaDTO) {
-        try {
-            DespesaDTO savedDespesa = despesaService.save(despesaDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedDespesa);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<DespesaDTO> createDespesa(@RequestBody DespesaDTO despesaDTO) {
+        DespesaDTO savedDespesa = despesaService.save(despesaDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedDespesa);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateDespesa(@PathVariable Long id, @RequestBody DespesaDTO despesaDTO) {
-        try {
-            DespesaDTO updatedDespesa = despesaService.update(id, despesaDTO);
-            return ResponseEntity.ok(updatedDespesa);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<DespesaDTO> updateDespesa(@PathVariable Long id, @RequestBody DespesaDTO despesaDTO) {
+        DespesaDTO updatedDespesa = despesaService.update(id, despesaDTO);
+        return ResponseEntity.ok(updatedDespesa);
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteDespesa(@PathVariable Long id) {
-        try {
-            despesaService.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<Void> deleteDespesa(@PathVariable Long id) {
+        despesaService.deleteById(id);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.sop.financialsystem.controller;
 
 import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.EmpenhoFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
 import com.sop.financialsystem.service.EmpenhoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,70 +22,59 @@ public class EmpenhoController {
     @Autowired
     private EmpenhoService empenhoService;
     
+    // Paginação por cursor: o id do último item retornado vem no cabeçalho X-Next-Cursor
+    // e deve ser enviado em "after" para buscar a próxima página
     @GetMapping
-    public ResponseEntity<List<EmpenhoDTO>> getAllEmpenhos() {
-        try {
-            List<EmpenhoDTO> empenhos = empenhoService.findAll();
-            return ResponseEntity.ok(empenhos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<List<EmpenhoDTO>> getAllEmpenhos(@ModelAttribute EmpenhoFiltro filtro,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           WebRequest request) {
+        if (request.checkNotModified(Representacao.etag(empenhoService.versaoPagina(filtro, after, limit).getEtag(), request))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
         }
+        PaginaDTO<EmpenhoDTO> pagina = empenhoService.findPage(filtro, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(Representacao.VARY);
+        if (pagina.getProximoCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getProximoCursor().toString());
+        }
+        return response.body(pagina.getItens());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<EmpenhoDTO> getEmpenhoById(@PathVariable Long id) {
-        try {
-            Optional<EmpenhoDTO> empenho = empenhoService.findById(id);
-            return empenho.map(ResponseEntity::ok)
-                         .orElse(ResponseEntity.notFound().build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<EmpenhoDTO> getEmpenhoById(@PathVariable Long id, WebRequest request) {
+        Optional<VersaoDTO> versao = empenhoService.versao(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(Representacao.etag(versao.get().getEtag(), request), versao.get().getUltimaAlteracao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
         }
+        Optional<EmpenhoDTO> empenho = empenhoService.findById(id);
+        return empenho.map(dto -> ResponseEntity.ok().varyBy(Representacao.VARY).body(dto))
+                     .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/despesa/{despesaId}")
     public ResponseEntity<List<EmpenhoDTO>> getEmpenhosByDespesaId(@PathVariable Long despesaId) {
-        try {
-            List<EmpenhoDTO> empenhos = empenhoService.findByDespesaId(despesaId);
-            return ResponseEntity.ok(empenhos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        List<EmpenhoDTO> empenhos = empenhoService.findByDespesaId(despesaId);
+        return ResponseEntity.ok(empenhos);
     }
     
     @PostMapping
-    public ResponseEntity<?> createEmpenho(@RequestBody EmpenhoDTO empenhoDTO) {
-        try {
-            EmpenhoDTO savedEmpenho = empenhoService.save(empenhoDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedEmpenho);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<EmpenhoDTO> createEmpenho(@RequestBody EmpenhoDTO empenhoDTO) {
+        EmpenhoDTO savedEmpenho = empenhoService.save(empenhoDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedEmpenho);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateEmpenho(@PathVariable Long id, @RequestBody EmpenhoDTO empenhoDTO) {
-        try {
-            EmpenhoDTO updatedEmpenho = empenhoService.update(id, empenhoDTO);
-            return ResponseEntity.ok(updatedEmpenho);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<EmpenhoDTO> updateEmpenho(@PathVariable Long id, @RequestBody EmpenhoDTO empenhoDTO) {
+        EmpenhoDTO updatedEmpenho = empenhoService.update(id, empenhoDTO);
+        return ResponseEntity.ok(updatedEmpenho);
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteEmpenho(@PathVariable Long id) {
-        try {
-            empenhoService.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<Void> deleteEmpenho(@PathVariable Long id) {
+        empenhoService.deleteById(id);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.dto.ResultadoImportacaoDTO;
+import com.sop.financialsystem.service.ImportacaoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+// Importação em lote: o corpo (array JSON ou CSV com cabeçalho) é lido de forma sequencial
+// e a resposta traz o resultado de cada registro
+@RestController
+@RequestMapping("/api/importacao")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ImportacaoController {
+    
+    private static final String TEXT_CSV = "text/csv";
+    
+    @Autowired
+    private ImportacaoService importacaoService;
+    
+    @PostMapping(value = "/despesas", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV})
+    public ResponseEntity<List<ResultadoImportacaoDTO>> importarDespesas(HttpServletRequest request) throws IOException {
+        List<ResultadoImportacaoDTO> resultados = importacaoService.importarDespesas(request.getInputStream(), isCsv(request));
+        return ResponseEntity.ok(resultados);
+    }
+    
+    @PostMapping(value = "/empenhos", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV})
+    public ResponseEntity<List<ResultadoImportacaoDTO>> importarEmpenhos(HttpServletRequest request) throws IOException {
+        List<ResultadoImportacaoDTO> resultados = importacaoService.importarEmpenhos(request.getInputStream(), isCsv(request));
+        return ResponseEntity.ok(resultados);
+    }
+    
+    @PostMapping(value = "/pagamentos", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV})
+    public ResponseEntity<List<ResultadoImportacaoDTO>> importarPagamentos(HttpServletRequest request) throws IOException {
+        List<ResultadoImportacaoDTO> resultados = importacaoService.importarPagamentos(request.getInputStream(), isCsv(request));
+        return ResponseEntity.ok(resultados);
+    }
+    
+    private boolean isCsv(HttpServletRequest request) {
+        return request.getContentType() != null && request.getContentType().startsWith(TEXT_CSV);
+    }
+}
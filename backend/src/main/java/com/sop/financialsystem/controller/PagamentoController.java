@@ -1,11 +1,18 @@
 package com.sop.financialsystem.controller;
 
 import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PagamentoFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
+import com.sop.financialsystem.dto.SituacaoIngestaoDTO;
+import com.sop.financialsystem.service.IngestaoPagamentoService;
 import com.sop.financialsystem.service.PagamentoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,70 +25,84 @@ public class PagamentoController {
     @Autowired
     private PagamentoService pagamentoService;
     
+    @Autowired
+    private IngestaoPagamentoService ingestaoPagamentoService;
+    
+    // Paginação por cursor: o id do último item retornado vem no cabeçalho X-Next-Cursor
+    // e deve ser enviado em "after" para buscar a próxima página
     @GetMapping
-    public ResponseEntity<List<PagamentoDTO>> getAllPagamentos() {
-        try {
-            List<PagamentoDTO> pagamentos = pagamentoService.findAll();
-            return ResponseEntity.ok(pagamentos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<List<PagamentoDTO>> getAllPagamentos(@ModelAttribute PagamentoFiltro filtro,
+                                                               @RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "100") int limit,
+                                                               WebRequest request) {
+        if (request.checkNotModified(Representacao.etag(pagamentoService.versaoPagina(filtro, after, limit).getEtag(), request))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
+        }
+        PaginaDTO<PagamentoDTO> pagina = pagamentoService.findPage(filtro, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(Representacao.VARY);
+        if (pagina.getProximoCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getProximoCursor().toString());
         }
+        return response.body(pagina.getItens());
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<PagamentoDTO> getPagamentoById(@PathVariable Long id) {
-        try {
-            Optional<PagamentoDTO> pagamento = pagamentoService.findById(id);
-            return pagamento.map(ResponseEntity::ok)
-                           .orElse(ResponseEntity.notFound().build());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<PagamentoDTO> getPagamentoById(@PathVariable Long id, WebRequest request) {
+        Optional<VersaoDTO> versao = pagamentoService.versao(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        if (request.checkNotModified(Representacao.etag(versao.get().getEtag(), request), versao.get().getUltimaAlteracao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(Representacao.VARY).build();
+        }
+        Optional<PagamentoDTO> pagamento = pagamentoService.findById(id);
+        return pagamento.map(dto -> ResponseEntity.ok().varyBy(Representacao.VARY).body(dto))
+                       .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/empenho/{empenhoId}")
     public ResponseEntity<List<PagamentoDTO>> getPagamentosByEmpenhoId(@PathVariable Long empenhoId) {
-        try {
-            List<PagamentoDTO> pagamentos = pagamentoService.findByEmpenhoId(empenhoId);
-            return ResponseEntity.ok(pagamentos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        List<PagamentoDTO> pagamentos = pagamentoService.findByEmpenhoId(empenhoId);
+        return ResponseEntity.ok(pagamentos);
     }
     
     @PostMapping
-    public ResponseEntity<?> createPagamento(@RequestBody PagamentoDTO pagamentoDTO) {
-        try {
-            PagamentoDTO savedPagamento = pagamentoService.save(pagamentoDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedPagamento);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
+    public ResponseEntity<PagamentoDTO> createPagamento(@RequestBody PagamentoDTO pagamentoDTO) {
+        PagamentoDTO savedPagamento = pagamentoService.save(pagamentoDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedPagamento);
+    }
+    
+    // Ingestão assíncrona: responde 202 com o id de aceite e grava em lote; com a fila cheia, 503
+    @PostMapping("/ingestao")
+    public ResponseEntity<?> enfileirarPagamento(@RequestBody PagamentoDTO pagamentoDTO) {
+        Optional<SituacaoIngestaoDTO> aceite = ingestaoPagamentoService.enfileirar(pagamentoDTO);
+        if (aceite.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, "1")
+                                 .body("Fila de ingestão cheia, tente novamente");
         }
+        return ResponseEntity.accepted()
+                             .header(HttpHeaders.LOCATION, "/api/pagamentos/ingestao/" + aceite.get().getId())
+                             .body(aceite.get());
+    }
+    
+    @GetMapping("/ingestao/{id}")
+    public ResponseEntity<SituacaoIngestaoDTO> getSituacaoIngestao(@PathVariable String id,
+                                                                   @RequestParam(defaultValue = "0") long aguardarMs) {
+        return ingestaoPagamentoService.consultar(id, aguardarMs)
+                                       .map(ResponseEntity::ok)
+                                       .orElse(ResponseEntity.notFound().build());
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<?> updatePagamento(@PathVariable Long id, @RequestBody PagamentoDTO pagamentoDTO) {
-        try {
-            PagamentoDTO updatedPagamento = pagamentoService.update(id, pagamentoDTO);
-            return ResponseEntity.ok(updatedPagamento);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<PagamentoDTO> updatePagamento(@PathVariable Long id, @RequestBody PagamentoDTO pagamentoDTO) {
+        PagamentoDTO updatedPagamento = pagamentoService.update(id, pagamentoDTO);
+        return ResponseEntity.ok(updatedPagamento);
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deletePagamento(@PathVariable Long id) {
-        try {
-            pagamentoService.deleteById(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Erro interno do servidor");
-        }
+    public ResponseEntity<Void> deletePagamento(@PathVariable Long id) {
+        pagamentoService.deleteById(id);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
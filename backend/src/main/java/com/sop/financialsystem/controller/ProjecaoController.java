@@ -0,0 +1,23 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.service.ProjecaoDespesaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/projecao")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ProjecaoController {
+    
+    @Autowired
+    private ProjecaoDespesaService projecaoDespesaService;
+    
+    // Descarta o modelo de leitura e o reconstrói reproduzindo todo o log de eventos
+    @PostMapping("/reconstrucao")
+    public ResponseEntity<Map<String, Long>> reconstruir() {
+        return ResponseEntity.ok(Map.of("despesas", projecaoDespesaService.reconstruir()));
+    }
+}
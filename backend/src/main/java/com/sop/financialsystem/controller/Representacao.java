@@ -0,0 +1,53 @@
+package com.sop.financialsystem.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A mesma URL responde em JSON, CBOR ou Smile conforme o Accept (ver FormatosBinariosConfig): a ETag leva
+// o formato negociado, para que a cópia em um formato não valide (304) uma requisição de outro, e as
+// respostas levam Vary: Accept
+final class Representacao {
+    
+    // Na ordem de preferência quando o Accept admite mais de um (*/* ou ausente: JSON)
+    private static final List<MediaType> FORMATOS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+        new MediaType("application", "x-jackson-smile"));
+    
+    static final String VARY = HttpHeaders.ACCEPT;
+    
+    private Representacao() {}
+    
+    static String etag(String etag, WebRequest request) {
+        return etag + "-" + negociado(request).getSubtype();
+    }
+    
+    // Mesmo critério dos conversores: o tipo aceito mais específico e de maior qualidade que algum formato atende
+    private static MediaType negociado(WebRequest request) {
+        List<MediaType> aceitos;
+        try {
+            String[] cabecalhos = request.getHeaderValues(HttpHeaders.ACCEPT);
+            aceitos = cabecalhos == null ? List.of(MediaType.ALL) : new ArrayList<>(MediaType.parseMediaTypes(List.of(cabecalhos)));
+        } catch (InvalidMediaTypeException e) {
+            aceitos = List.of(MediaType.ALL);
+        }
+        if (aceitos.size() > 1) {
+            MimeTypeUtils.sortBySpecificity(aceitos);
+        }
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType formato : FORMATOS) {
+                if (aceito.isCompatibleWith(formato)) {
+                    return formato;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,55 @@
+package com.sop.financialsystem.controller;
+
+import com.sop.financialsystem.dto.ErroDTO;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+// Tradução central dos erros em respostas: os controllers só tratam o caminho feliz. As exceções do
+// próprio Spring MVC (parâmetro inválido, JSON malformado, método não suportado) seguem o tratamento
+// padrão herdado, que tem precedência sobre o handler genérico por ser mais específico
+@RestControllerAdvice
+public class TratadorErros extends ResponseEntityExceptionHandler {
+    
+    private static final Logger log = LoggerFactory.getLogger(TratadorErros.class);
+    
+    // SQLSTATE de unicidade (23505) e de chave estrangeira (23503; 23506 no H2)
+    private static final Set<String> CONFLITOS = Set.of("23505", "23503", "23506");
+    
+    @ExceptionHandler(RegraNegocioException.class)
+    public ResponseEntity<ErroDTO> regraNegocio(RegraNegocioException e) {
+        log.debug("Requisição rejeitada ({}): {}", e.getCodigo(), e.getMessage());
+        return resposta(e.getCodigo(), e.getMessage());
+    }
+    
+    // Unicidade ou chave estrangeira violada apesar das validações: outra requisição gravou o mesmo
+    // número ou removeu o registro referenciado entre a verificação e o commit. As demais violações
+    // (NOT NULL, tamanho, CHECK) vêm dos dados enviados e não se resolvem com nova tentativa
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErroDTO> integridade(DataIntegrityViolationException e) {
+        log.debug("Violação de integridade", e);
+        if (e.getMostSpecificCause() instanceof SQLException sql && CONFLITOS.contains(sql.getSQLState())) {
+            return resposta(CodigoErro.ALTERACAO_CONCORRENTE, "Registro alterado por outra operação, tente novamente");
+        }
+        return resposta(CodigoErro.DADOS_INVALIDOS, "Dados inválidos para gravação");
+    }
+    
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErroDTO> erroInterno(Exception e) {
+        log.error("Erro não tratado na requisição", e);
+        return resposta(CodigoErro.ERRO_INTERNO, "Erro interno do servidor");
+    }
+    
+    private ResponseEntity<ErroDTO> resposta(CodigoErro codigo, String mensagem) {
+        return ResponseEntity.status(codigo.getStatus()).body(new ErroDTO(codigo.name(), mensagem));
+    }
+}
@@ -1,6 +1,7 @@
 package com.sop.financialsystem.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class DespesaDTO {
@@ -14,6 +15,11 @@ public class DespesaDTO {
     private String descricao;
     private BigDecimal valor;
     private String status;
+    private BigDecimal totalEmpenhado;
+    private BigDecimal totalPago;
+    private Integer quantidadeEmpenhos;
+    private Integer quantidadePagamentos;
+    private LocalDate dataUltimoPagamento;
     
     // Construtor padrão
     public DespesaDTO() {}
@@ -32,6 +38,30 @@ public class DespesaDTO {
         this.valor = valor;
     }
     
+    // Construtor usado nas consultas de listagem (projeção com totais e status materializados)
+    public DespesaDTO(Long id, String numeroProtocolo, String tipoDespesa, 
+                     LocalDateTime dataProtocolo, LocalDateTime dataVencimento, 
+                     String credor, String descricao, BigDecimal valor,
+                     BigDecimal totalEmpenhado, BigDecimal totalPago, String status) {
+        this(id, numeroProtocolo, tipoDespesa, dataProtocolo, dataVencimento, credor, descricao, valor);
+        this.totalEmpenhado = totalEmpenhado;
+        this.totalPago = totalPago;
+        this.status = status;
+    }
+    
+    // Construtor usado nas listagens servidas pela projeção ResumoDespesa
+    public DespesaDTO(Long id, String numeroProtocolo, String tipoDespesa, 
+                     LocalDateTime dataProtocolo, LocalDateTime dataVencimento, 
+                     String credor, String descricao, BigDecimal valor,
+                     BigDecimal totalEmpenhado, BigDecimal totalPago, String status,
+                     Integer quantidadeEmpenhos, Integer quantidadePagamentos, LocalDate dataUltimoPagamento) {
+        this(id, numeroProtocolo, tipoDespesa, dataProtocolo, dataVencimento, credor, descricao, valor,
+             totalEmpenhado, totalPago, status);
+        this.quantidadeEmpenhos = quantidadeEmpenhos;
+        this.quantidadePagamentos = quantidadePagamentos;
+        this.dataUltimoPagamento = dataUltimoPagamento;
+    }
+    
     // Getters e Setters
     public Long getId() { 
         return id; 
@@ -104,4 +134,44 @@ public class DespesaDTO {
     public void setStatus(String status) { 
         this.status = status; 
     }
-}
\ No newline at end of file
+    
+    public BigDecimal getTotalEmpenhado() { 
+        return totalEmpenhado; 
+    }
+    
+    public void setTotalEmpenhado(BigDecimal totalEmpenhado) { 
+        this.totalEmpenhado = totalEmpenhado; 
+    }
+    
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public void setTotalPago(BigDecimal totalPago) { 
+        this.totalPago = totalPago; 
+    }
+    
+    public Integer getQuantidadeEmpenhos() { 
+        return quantidadeEmpenhos; 
+    }
+    
+    public void setQuantidadeEmpenhos(Integer quantidadeEmpenhos) { 
+        this.quantidadeEmpenhos = quantidadeEmpenhos; 
+    }
+    
+    public Integer getQuantidadePagamentos() { 
+        return quantidadePagamentos; 
+    }
+    
+    public void setQuantidadePagamentos(Integer quantidadePagamentos) { 
+        this.quantidadePagamentos = quantidadePagamentos; 
+    }
+    
+    public LocalDate getDataUltimoPagamento() { 
+        return dataUltimoPagamento; 
+    }
+    
+    public void setDataUltimoPagamento(LocalDate dataUltimoPagamento) { 
+        this.dataUltimoPagamento = dataUltimoPagamento; 
+    }
+}
@@ -0,0 +1,62 @@
+package com.sop.financialsystem.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class DespesaFiltro {
+    
+    private String credor; // prefixo do nome do credor
+    private String tipoDespesa;
+    private String status;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate vencimentoDe;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate vencimentoAte;
+    
+    // Construtor padrão
+    public DespesaFiltro() {}
+    
+    // Getters e Setters
+    public String getCredor() { 
+        return credor; 
+    }
+    
+    public void setCredor(String credor) { 
+        this.credor = credor; 
+    }
+    
+    public String getTipoDespesa() { 
+        return tipoDespesa; 
+    }
+    
+    public void setTipoDespesa(String tipoDespesa) { 
+        this.tipoDespesa = tipoDespesa; 
+    }
+    
+    public String getStatus() { 
+        return status; 
+    }
+    
+    public void setStatus(String status) { 
+        this.status = status; 
+    }
+    
+    public LocalDate getVencimentoDe() { 
+        return vencimentoDe; 
+    }
+    
+    public void setVencimentoDe(LocalDate vencimentoDe) { 
+        this.vencimentoDe = vencimentoDe; 
+    }
+    
+    public LocalDate getVencimentoAte() { 
+        return vencimentoAte; 
+    }
+    
+    public void setVencimentoAte(LocalDate vencimentoAte) { 
+        this.vencimentoAte = vencimentoAte; 
+    }
+}
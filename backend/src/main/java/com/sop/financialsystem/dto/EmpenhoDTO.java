@@ -27,6 +27,13 @@ public class EmpenhoDTO {
         this.despesaId = despesaId;
     }
     
+    // Construtor usado nas consultas de leitura (projeção com o protocolo da despesa via join)
+    public EmpenhoDTO(Long id, String numeroEmpenho, LocalDate dataEmpenho, 
+                     BigDecimal valor, String observacao, Long despesaId, String numeroProtocoloDespesa) {
+        this(id, numeroEmpenho, dataEmpenho, valor, observacao, despesaId);
+        this.numeroProtocoloDespesa = numeroProtocoloDespesa;
+    }
+    
     // Getters e Setters
     public Long getId() { 
         return id; 
@@ -0,0 +1,44 @@
+package com.sop.financialsystem.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class EmpenhoFiltro {
+    
+    private Long despesaId;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataDe;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataAte;
+    
+    // Construtor padrão
+    public EmpenhoFiltro() {}
+    
+    // Getters e Setters
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public void setDespesaId(Long despesaId) { 
+        this.despesaId = despesaId; 
+    }
+    
+    public LocalDate getDataDe() { 
+        return dataDe; 
+    }
+    
+    public void setDataDe(LocalDate dataDe) { 
+        this.dataDe = dataDe; 
+    }
+    
+    public LocalDate getDataAte() { 
+        return dataAte; 
+    }
+    
+    public void setDataAte(LocalDate dataAte) { 
+        this.dataAte = dataAte; 
+    }
+}
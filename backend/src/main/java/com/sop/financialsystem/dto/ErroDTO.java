@@ -0,0 +1,34 @@
+package com.sop.financialsystem.dto;
+
+// Corpo das respostas de erro. "message" é o campo que o front-end exibe (error.response.data.message)
+public class ErroDTO {
+    
+    private String codigo;
+    private String message;
+    
+    // Construtor padrão
+    public ErroDTO() {}
+    
+    // Construtor completo
+    public ErroDTO(String codigo, String message) {
+        this.codigo = codigo;
+        this.message = message;
+    }
+    
+    // Getters e Setters
+    public String getCodigo() { 
+        return codigo; 
+    }
+    
+    public void setCodigo(String codigo) { 
+        this.codigo = codigo; 
+    }
+    
+    public String getMessage() { 
+        return message; 
+    }
+    
+    public void setMessage(String message) { 
+        this.message = message; 
+    }
+}
@@ -0,0 +1,44 @@
+package com.sop.financialsystem.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class PagamentoFiltro {
+    
+    private Long empenhoId;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataDe;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dataAte;
+    
+    // Construtor padrão
+    public PagamentoFiltro() {}
+    
+    // Getters e Setters
+    public Long getEmpenhoId() { 
+        return empenhoId; 
+    }
+    
+    public void setEmpenhoId(Long empenhoId) { 
+        this.empenhoId = empenhoId; 
+    }
+    
+    public LocalDate getDataDe() { 
+        return dataDe; 
+    }
+    
+    public void setDataDe(LocalDate dataDe) { 
+        this.dataDe = dataDe; 
+    }
+    
+    public LocalDate getDataAte() { 
+        return dataAte; 
+    }
+    
+    public void setDataAte(LocalDate dataAte) { 
+        this.dataAte = dataAte; 
+    }
+}
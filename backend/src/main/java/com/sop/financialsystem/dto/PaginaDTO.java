@@ -0,0 +1,35 @@
+package com.sop.financialsystem.dto;
+
+import java.util.List;
+
+public class PaginaDTO<T> {
+    
+    private List<T> itens;
+    private Long proximoCursor; // null quando não há mais páginas
+    
+    // Construtor padrão
+    public PaginaDTO() {}
+    
+    // Construtor completo
+    public PaginaDTO(List<T> itens, Long proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+    
+    // Getters e Setters
+    public List<T> getItens() { 
+        return itens; 
+    }
+    
+    public void setItens(List<T> itens) { 
+        this.itens = itens; 
+    }
+    
+    public Long getProximoCursor() { 
+        return proximoCursor; 
+    }
+    
+    public void setProximoCursor(Long proximoCursor) { 
+        this.proximoCursor = proximoCursor; 
+    }
+}
@@ -0,0 +1,77 @@
+package com.sop.financialsystem.dto;
+
+public class ResultadoBuscaDTO {
+    
+    public static final String DESPESA = "DESPESA";
+    public static final String EMPENHO = "EMPENHO";
+    public static final String PAGAMENTO = "PAGAMENTO";
+    
+    private String tipo;
+    private Long id;
+    private Long despesaId;
+    private String numero;
+    private String texto;
+    private Double relevancia;
+    
+    // Construtor padrão
+    public ResultadoBuscaDTO() {}
+    
+    // Construtor completo
+    public ResultadoBuscaDTO(String tipo, Long id, Long despesaId, String numero, String texto, Double relevancia) {
+        this.tipo = tipo;
+        this.id = id;
+        this.despesaId = despesaId;
+        this.numero = numero;
+        this.texto = texto;
+        this.relevancia = relevancia;
+    }
+    
+    // Getters e Setters
+    public String getTipo() { 
+        return tipo; 
+    }
+    
+    public void setTipo(String tipo) { 
+        this.tipo = tipo; 
+    }
+    
+    public Long getId() { 
+        return id; 
+    }
+    
+    public void setId(Long id) { 
+        this.id = id; 
+    }
+    
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public void setDespesaId(Long despesaId) { 
+        this.despesaId = despesaId; 
+    }
+    
+    public String getNumero() { 
+        return numero; 
+    }
+    
+    public void setNumero(String numero) { 
+        this.numero = numero; 
+    }
+    
+    public String getTexto() { 
+        return texto; 
+    }
+    
+    public void setTexto(String texto) { 
+        this.texto = texto; 
+    }
+    
+    public Double getRelevancia() { 
+        return relevancia; 
+    }
+    
+    public void setRelevancia(Double relevancia) { 
+        this.relevancia = relevancia; 
+    }
+}
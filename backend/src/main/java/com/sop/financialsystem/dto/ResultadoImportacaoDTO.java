@@ -0,0 +1,64 @@
+package com.sop.financialsystem.dto;
+
+public class ResultadoImportacaoDTO {
+    
+    public static final String IMPORTADO = "IMPORTADO";
+    public static final String REJEITADO = "REJEITADO";
+    
+    private int linha;
+    private String situacao;
+    private Long id;
+    private String erro;
+    
+    // Construtor padrão
+    public ResultadoImportacaoDTO() {}
+    
+    // Construtor completo
+    public ResultadoImportacaoDTO(int linha, String situacao, Long id, String erro) {
+        this.linha = linha;
+        this.situacao = situacao;
+        this.id = id;
+        this.erro = erro;
+    }
+    
+    public static ResultadoImportacaoDTO importado(int linha, Long id) {
+        return new ResultadoImportacaoDTO(linha, IMPORTADO, id, null);
+    }
+    
+    public static ResultadoImportacaoDTO rejeitado(int linha, String erro) {
+        return new ResultadoImportacaoDTO(linha, REJEITADO, null, erro);
+    }
+    
+    // Getters e Setters
+    public int getLinha() { 
+        return linha; 
+    }
+    
+    public void setLinha(int linha) { 
+        this.linha = linha; 
+    }
+    
+    public String getSituacao() { 
+        return situacao; 
+    }
+    
+    public void setSituacao(String situacao) { 
+        this.situacao = situacao; 
+    }
+    
+    public Long getId() { 
+        return id; 
+    }
+    
+    public void setId(Long id) { 
+        this.id = id; 
+    }
+    
+    public String getErro() { 
+        return erro; 
+    }
+    
+    public void setErro(String erro) { 
+        this.erro = erro; 
+    }
+}
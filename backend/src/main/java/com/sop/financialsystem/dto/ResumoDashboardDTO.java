@@ -0,0 +1,67 @@
+package com.sop.financialsystem.dto;
+
+import java.util.List;
+
+public class ResumoDashboardDTO {
+    
+    private List<TotalAgrupadoDTO> porStatus;
+    private List<TotalAgrupadoDTO> porTipoDespesa;
+    private List<TotalAgrupadoDTO> maioresCredores;
+    private List<TotalMensalDTO> porMes;
+    private TotalAgrupadoDTO vencidas; // total = saldo ainda não pago das despesas vencidas
+    
+    // Construtor padrão
+    public ResumoDashboardDTO() {}
+    
+    // Construtor completo
+    public ResumoDashboardDTO(List<TotalAgrupadoDTO> porStatus, List<TotalAgrupadoDTO> porTipoDespesa,
+                              List<TotalAgrupadoDTO> maioresCredores, List<TotalMensalDTO> porMes,
+                              TotalAgrupadoDTO vencidas) {
+        this.porStatus = porStatus;
+        this.porTipoDespesa = porTipoDespesa;
+        this.maioresCredores = maioresCredores;
+        this.porMes = porMes;
+        this.vencidas = vencidas;
+    }
+    
+    // Getters e Setters
+    public List<TotalAgrupadoDTO> getPorStatus() { 
+        return porStatus; 
+    }
+    
+    public void setPorStatus(List<TotalAgrupadoDTO> porStatus) { 
+        this.porStatus = porStatus; 
+    }
+    
+    public List<TotalAgrupadoDTO> getPorTipoDespesa() { 
+        return porTipoDespesa; 
+    }
+    
+    public void setPorTipoDespesa(List<TotalAgrupadoDTO> porTipoDespesa) { 
+        this.porTipoDespesa = porTipoDespesa; 
+    }
+    
+    public List<TotalAgrupadoDTO> getMaioresCredores() { 
+        return maioresCredores; 
+    }
+    
+    public void setMaioresCredores(List<TotalAgrupadoDTO> maioresCredores) { 
+        this.maioresCredores = maioresCredores; 
+    }
+    
+    public List<TotalMensalDTO> getPorMes() { 
+        return porMes; 
+    }
+    
+    public void setPorMes(List<TotalMensalDTO> porMes) { 
+        this.porMes = porMes; 
+    }
+    
+    public TotalAgrupadoDTO getVencidas() { 
+        return vencidas; 
+    }
+    
+    public void setVencidas(TotalAgrupadoDTO vencidas) { 
+        this.vencidas = vencidas; 
+    }
+}
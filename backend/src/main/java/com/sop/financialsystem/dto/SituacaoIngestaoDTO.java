@@ -0,0 +1,69 @@
+package com.sop.financialsystem.dto;
+
+public class SituacaoIngestaoDTO {
+    
+    public static final String PENDENTE = "PENDENTE";
+    public static final String GRAVADO = "GRAVADO";
+    public static final String REJEITADO = "REJEITADO";
+    
+    private String id;
+    private String situacao;
+    private Long pagamentoId;
+    private String erro;
+    
+    // Construtor padrão
+    public SituacaoIngestaoDTO() {}
+    
+    // Construtor completo
+    public SituacaoIngestaoDTO(String id, String situacao, Long pagamentoId, String erro) {
+        this.id = id;
+        this.situacao = situacao;
+        this.pagamentoId = pagamentoId;
+        this.erro = erro;
+    }
+    
+    public static SituacaoIngestaoDTO pendente(String id) {
+        return new SituacaoIngestaoDTO(id, PENDENTE, null, null);
+    }
+    
+    public static SituacaoIngestaoDTO gravado(String id, Long pagamentoId) {
+        return new SituacaoIngestaoDTO(id, GRAVADO, pagamentoId, null);
+    }
+    
+    public static SituacaoIngestaoDTO rejeitado(String id, String erro) {
+        return new SituacaoIngestaoDTO(id, REJEITADO, null, erro);
+    }
+    
+    // Getters e Setters
+    public String getId() { 
+        return id; 
+    }
+    
+    public void setId(String id) { 
+        this.id = id; 
+    }
+    
+    public String getSituacao() { 
+        return situacao; 
+    }
+    
+    public void setSituacao(String situacao) { 
+        this.situacao = situacao; 
+    }
+    
+    public Long getPagamentoId() { 
+        return pagamentoId; 
+    }
+    
+    public void setPagamentoId(Long pagamentoId) { 
+        this.pagamentoId = pagamentoId; 
+    }
+    
+    public String getErro() { 
+        return erro; 
+    }
+    
+    public void setErro(String erro) { 
+        this.erro = erro; 
+    }
+}
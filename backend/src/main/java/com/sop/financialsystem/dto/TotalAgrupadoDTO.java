@@ -0,0 +1,45 @@
+package com.sop.financialsystem.dto;
+
+import java.math.BigDecimal;
+
+public class TotalAgrupadoDTO {
+    
+    private String chave;
+    private Long quantidade;
+    private BigDecimal total;
+    
+    // Construtor padrão
+    public TotalAgrupadoDTO() {}
+    
+    // Construtor completo (usado nas projeções com GROUP BY)
+    public TotalAgrupadoDTO(String chave, Long quantidade, BigDecimal total) {
+        this.chave = chave;
+        this.quantidade = quantidade;
+        this.total = total != null ? total : BigDecimal.ZERO; // SUM de um grupo vazio
+    }
+    
+    // Getters e Setters
+    public String getChave() { 
+        return chave; 
+    }
+    
+    public void setChave(String chave) { 
+        this.chave = chave; 
+    }
+    
+    public Long getQuantidade() { 
+        return quantidade; 
+    }
+    
+    public void setQuantidade(Long quantidade) { 
+        this.quantidade = quantidade; 
+    }
+    
+    public BigDecimal getTotal() { 
+        return total; 
+    }
+    
+    public void setTotal(BigDecimal total) { 
+        this.total = total; 
+    }
+}
@@ -0,0 +1,55 @@
+package com.sop.financialsystem.dto;
+
+import java.math.BigDecimal;
+
+public class TotalMensalDTO {
+    
+    private int ano;
+    private int mes;
+    private BigDecimal empenhado = BigDecimal.ZERO;
+    private BigDecimal pago = BigDecimal.ZERO;
+    
+    // Construtor padrão
+    public TotalMensalDTO() {}
+    
+    // Construtor completo
+    public TotalMensalDTO(int ano, int mes, BigDecimal empenhado, BigDecimal pago) {
+        this.ano = ano;
+        this.mes = mes;
+        this.empenhado = empenhado;
+        this.pago = pago;
+    }
+    
+    // Getters e Setters
+    public int getAno() { 
+        return ano; 
+    }
+    
+    public void setAno(int ano) { 
+        this.ano = ano; 
+    }
+    
+    public int getMes() { 
+        return mes; 
+    }
+    
+    public void setMes(int mes) { 
+        this.mes = mes; 
+    }
+    
+    public BigDecimal getEmpenhado() { 
+        return empenhado; 
+    }
+    
+    public void setEmpenhado(BigDecimal empenhado) { 
+        this.empenhado = empenhado; 
+    }
+    
+    public BigDecimal getPago() { 
+        return pago; 
+    }
+    
+    public void setPago(BigDecimal pago) { 
+        this.pago = pago; 
+    }
+}
@@ -0,0 +1,34 @@
+package com.sop.financialsystem.dto;
+
+// Versão de um recurso ou de uma página para requisições condicionais (If-None-Match / If-Modified-Since)
+public class VersaoDTO {
+    
+    private String etag;
+    private long ultimaAlteracao;
+    
+    // Construtor padrão
+    public VersaoDTO() {}
+    
+    // Construtor completo; ultimaAlteracao em milissegundos, -1 quando desconhecida
+    public VersaoDTO(String etag, long ultimaAlteracao) {
+        this.etag = etag;
+        this.ultimaAlteracao = ultimaAlteracao;
+    }
+    
+    // Getters e Setters
+    public String getEtag() { 
+        return etag; 
+    }
+    
+    public void setEtag(String etag) { 
+        this.etag = etag; 
+    }
+    
+    public long getUltimaAlteracao() { 
+        return ultimaAlteracao; 
+    }
+    
+    public void setUltimaAlteracao(long ultimaAlteracao) { 
+        this.ultimaAlteracao = ultimaAlteracao; 
+    }
+}
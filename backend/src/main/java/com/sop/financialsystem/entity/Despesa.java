@@ -1,18 +1,36 @@
 package com.sop.financialsystem.entity;
 
+import com.sop.financialsystem.service.DespesaCacheListener;
+import com.sop.financialsystem.service.FiltroNumerosListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Cache de segundo nível: a despesa é relida a cada escrita de empenho e pagamento. READ_WRITE
+// invalida a entrada na alteração e só a repõe após o commit
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "despesa")
+@NaturalIdCache(region = "despesa-protocolo")
 @Table(name = "despesa")
+@EntityListeners({DespesaCacheListener.class, FiltroNumerosListener.class})
 public class Despesa {
     
+    // Sequência com alocação em blocos (pooled): permite o batching de inserts do Hibernate,
+    // que fica desabilitado com IDENTITY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "despesa_seq")
+    @SequenceGenerator(name = "despesa_seq", sequenceName = "despesa_seq", allocationSize = 50)
     private Long id;
     
+    @NaturalId(mutable = true)
     @Column(name = "numero_protocolo", nullable = false, unique = true)
     private String numeroProtocolo;
     
@@ -34,6 +52,26 @@ public class Despesa {
     @Column(name = "valor", nullable = false, precision = 15, scale = 2)
     private BigDecimal valor;
     
+    // Totais mantidos incrementalmente a cada escrita de empenho/pagamento
+    @Column(name = "total_empenhado", columnDefinition = "NUMERIC(15,2) DEFAULT 0 NOT NULL")
+    private BigDecimal totalEmpenhado = BigDecimal.ZERO;
+    
+    @Column(name = "total_pago", columnDefinition = "NUMERIC(15,2) DEFAULT 0 NOT NULL")
+    private BigDecimal totalPago = BigDecimal.ZERO;
+    
+    @Column(name = "status", columnDefinition = "VARCHAR(30) DEFAULT 'Aguardando Empenho' NOT NULL")
+    private String status = "Aguardando Empenho";
+    
+    // Mantidos pelo Hibernate a cada inserção/alteração (inclusive dos totais);
+    // base das ETags e do Last-Modified da API
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime criadoEm;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime atualizadoEm;
+    
     @OneToMany(mappedBy = "despesa", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Empenho> empenhos;
     
@@ -105,6 +143,30 @@ public class Despesa {
         this.valor = valor; 
     }
     
+    public BigDecimal getTotalEmpenhado() { 
+        return totalEmpenhado; 
+    }
+    
+    public void setTotalEmpenhado(BigDecimal totalEmpenhado) { 
+        this.totalEmpenhado = totalEmpenhado; 
+    }
+    
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public void setTotalPago(BigDecimal totalPago) { 
+        this.totalPago = totalPago; 
+    }
+    
+    public String getStatus() { 
+        return status; 
+    }
+    
+    public void setStatus(String status) { 
+        this.status = status; 
+    }
+    
     public List<Empenho> getEmpenhos() { 
         return empenhos; 
     }
@@ -112,4 +174,12 @@ public class Despesa {
     public void setEmpenhos(List<Empenho> empenhos) { 
         this.empenhos = empenhos; 
     }
+    
+    public LocalDateTime getCriadoEm() { 
+        return criadoEm; 
+    }
+    
+    public LocalDateTime getAtualizadoEm() { 
+        return atualizadoEm; 
+    }
 }
\ No newline at end of file
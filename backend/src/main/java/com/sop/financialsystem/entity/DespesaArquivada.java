@@ -0,0 +1,114 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Despesa movida para o arquivo (db/arquivo.sql) pelo ArquivamentoService; somente leitura
+@Entity
+@Immutable
+@Subselect("SELECT id, numero_protocolo, tipo_despesa, data_protocolo, data_vencimento, credor, descricao, valor, " +
+           "total_empenhado, total_pago, status, arquivado_em, ano FROM despesa_arquivo")
+@Synchronize("despesa_arquivo")
+public class DespesaArquivada {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "numero_protocolo")
+    private String numeroProtocolo;
+    
+    @Column(name = "tipo_despesa")
+    private String tipoDespesa;
+    
+    @Column(name = "data_protocolo")
+    private LocalDateTime dataProtocolo;
+    
+    @Column(name = "data_vencimento")
+    private LocalDateTime dataVencimento;
+    
+    @Column(name = "credor")
+    private String credor;
+    
+    @Column(name = "descricao")
+    private String descricao;
+    
+    @Column(name = "valor")
+    private BigDecimal valor;
+    
+    @Column(name = "total_empenhado")
+    private BigDecimal totalEmpenhado;
+    
+    @Column(name = "total_pago")
+    private BigDecimal totalPago;
+    
+    @Column(name = "status")
+    private String status;
+    
+    @Column(name = "arquivado_em")
+    private LocalDateTime arquivadoEm;
+    
+    @Column(name = "ano")
+    private int ano;
+    
+    // Construtor padrão
+    public DespesaArquivada() {}
+    
+    // Getters
+    public Long getId() { 
+        return id; 
+    }
+    
+    public String getNumeroProtocolo() { 
+        return numeroProtocolo; 
+    }
+    
+    public String getTipoDespesa() { 
+        return tipoDespesa; 
+    }
+    
+    public LocalDateTime getDataProtocolo() { 
+        return dataProtocolo; 
+    }
+    
+    public LocalDateTime getDataVencimento() { 
+        return dataVencimento; 
+    }
+    
+    public String getCredor() { 
+        return credor; 
+    }
+    
+    public String getDescricao() { 
+        return descricao; 
+    }
+    
+    public BigDecimal getValor() { 
+        return valor; 
+    }
+    
+    public BigDecimal getTotalEmpenhado() { 
+        return totalEmpenhado; 
+    }
+    
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public String getStatus() { 
+        return status; 
+    }
+    
+    public LocalDateTime getArquivadoEm() { 
+        return arquivadoEm; 
+    }
+    
+    public int getAno() { 
+        return ano; 
+    }
+}
@@ -1,18 +1,32 @@
 package com.sop.financialsystem.entity;
 
+import com.sop.financialsystem.service.FiltroNumerosListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "empenho")
+@NaturalIdCache(region = "empenho-numero")
 @Table(name = "empenho")
+@EntityListeners(FiltroNumerosListener.class)
 public class Empenho {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empenho_seq")
+    @SequenceGenerator(name = "empenho_seq", sequenceName = "empenho_seq", allocationSize = 50)
     private Long id;
     
+    @NaturalId(mutable = true)
     @Column(name = "numero_empenho", nullable = false, unique = true)
     private String numeroEmpenho;
     
@@ -25,6 +39,19 @@ public class Empenho {
     @Column(name = "observacao", columnDefinition = "TEXT")
     private String observacao;
     
+    // Total mantido incrementalmente a cada escrita de pagamento
+    @Column(name = "total_pago", columnDefinition = "NUMERIC(15,2) DEFAULT 0 NOT NULL")
+    private BigDecimal totalPago = BigDecimal.ZERO;
+    
+    // Mantidos pelo Hibernate (inclusive quando o total pago muda), como em Despesa
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime criadoEm;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime atualizadoEm;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "despesa_id", nullable = false)
     private Despesa despesa;
@@ -76,6 +103,14 @@ public class Empenho {
         this.observacao = observacao; 
     }
     
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public void setTotalPago(BigDecimal totalPago) { 
+        this.totalPago = totalPago; 
+    }
+    
     public Despesa getDespesa() { 
         return despesa; 
     }
@@ -91,4 +126,12 @@ public class Empenho {
     public void setPagamentos(List<Pagamento> pagamentos) { 
         this.pagamentos = pagamentos; 
     }
+    
+    public LocalDateTime getCriadoEm() { 
+        return criadoEm; 
+    }
+    
+    public LocalDateTime getAtualizadoEm() { 
+        return atualizadoEm; 
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Empenho de uma despesa arquivada; guarda o ano da despesa, que define a partição
+@Entity
+@Immutable
+@Subselect("SELECT id, numero_empenho, data_empenho, valor, observacao, total_pago, despesa_id, ano FROM empenho_arquivo")
+@Synchronize("empenho_arquivo")
+public class EmpenhoArquivado {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "numero_empenho")
+    private String numeroEmpenho;
+    
+    @Column(name = "data_empenho")
+    private LocalDate dataEmpenho;
+    
+    @Column(name = "valor")
+    private BigDecimal valor;
+    
+    @Column(name = "observacao")
+    private String observacao;
+    
+    @Column(name = "total_pago")
+    private BigDecimal totalPago;
+    
+    @Column(name = "despesa_id")
+    private Long despesaId;
+    
+    @Column(name = "ano")
+    private int ano;
+    
+    // Construtor padrão
+    public EmpenhoArquivado() {}
+    
+    // Getters
+    public Long getId() { 
+        return id; 
+    }
+    
+    public String getNumeroEmpenho() { 
+        return numeroEmpenho; 
+    }
+    
+    public LocalDate getDataEmpenho() { 
+        return dataEmpenho; 
+    }
+    
+    public BigDecimal getValor() { 
+        return valor; 
+    }
+    
+    public String getObservacao() { 
+        return observacao; 
+    }
+    
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public int getAno() { 
+        return ano; 
+    }
+}
@@ -0,0 +1,118 @@
+package com.sop.financialsystem.entity;
+
+import com.sop.financialsystem.service.ProjecaoDespesaListener;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Log de eventos do ciclo despesa -> empenho -> pagamento: somente inserções (@Immutable),
+// consumido pela projeção ResumoDespesa e reproduzido integralmente na reconstrução dela
+@Entity
+@Immutable
+@EntityListeners(ProjecaoDespesaListener.class)
+@Table(name = "evento_dominio")
+public class EventoDominio {
+    
+    public static final String DESPESA_IMPORTADA = "DESPESA_IMPORTADA";
+    public static final String DESPESA_CRIADA = "DESPESA_CRIADA";
+    public static final String DESPESA_ATUALIZADA = "DESPESA_ATUALIZADA";
+    public static final String DESPESA_RECONCILIADA = "DESPESA_RECONCILIADA";
+    public static final String DESPESA_EXCLUIDA = "DESPESA_EXCLUIDA";
+    public static final String DESPESA_ARQUIVADA = "DESPESA_ARQUIVADA";
+    public static final String DESPESA_VENCIDA = "DESPESA_VENCIDA";
+    public static final String EMPENHO_CRIADO = "EMPENHO_CRIADO";
+    public static final String EMPENHO_ATUALIZADO = "EMPENHO_ATUALIZADO";
+    public static final String EMPENHO_EXCLUIDO = "EMPENHO_EXCLUIDO";
+    public static final String PAGAMENTO_CRIADO = "PAGAMENTO_CRIADO";
+    public static final String PAGAMENTO_ATUALIZADO = "PAGAMENTO_ATUALIZADO";
+    public static final String PAGAMENTO_EXCLUIDO = "PAGAMENTO_EXCLUIDO";
+    public static final String PAGAMENTO_TRANSFERIDO = "PAGAMENTO_TRANSFERIDO";
+    
+    // Ordem de aplicação dos eventos de cada despesa: um nextval por evento, pedido sob o bloqueio da
+    // despesa, de modo que a ordem dos ids segue a das escritas mesmo com várias instâncias (blocos
+    // pré-alocados por instância, como nas demais sequências, inverteriam essa ordem entre instâncias)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_ordem_seq")
+    @SequenceGenerator(name = "evento_ordem_seq", sequenceName = "evento_ordem_seq", allocationSize = 1)
+    private Long id;
+    
+    @Column(name = "tipo", nullable = false, length = 40)
+    private String tipo;
+    
+    // Id da despesa, do empenho ou do pagamento, conforme o tipo do evento
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+    
+    // Despesa afetada: chave da projeção e da ordem de aplicação dos eventos
+    @Column(name = "despesa_id", nullable = false)
+    private Long despesaId;
+    
+    // Conteúdo do evento em JSON
+    @Column(name = "dados", columnDefinition = "TEXT", nullable = false)
+    private String dados;
+    
+    @Column(name = "registrado_em", nullable = false)
+    private LocalDateTime registradoEm;
+    
+    // Construtor padrão
+    public EventoDominio() {}
+    
+    // Construtor completo
+    public EventoDominio(String tipo, Long entidadeId, Long despesaId, String dados, LocalDateTime registradoEm) {
+        this.tipo = tipo;
+        this.entidadeId = entidadeId;
+        this.despesaId = despesaId;
+        this.dados = dados;
+        this.registradoEm = registradoEm;
+    }
+    
+    // Getters e Setters
+    public Long getId() { 
+        return id; 
+    }
+    
+    public void setId(Long id) { 
+        this.id = id; 
+    }
+    
+    public String getTipo() { 
+        return tipo; 
+    }
+    
+    public void setTipo(String tipo) { 
+        this.tipo = tipo; 
+    }
+    
+    public Long getEntidadeId() { 
+        return entidadeId; 
+    }
+    
+    public void setEntidadeId(Long entidadeId) { 
+        this.entidadeId = entidadeId; 
+    }
+    
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public void setDespesaId(Long despesaId) { 
+        this.despesaId = despesaId; 
+    }
+    
+    public String getDados() { 
+        return dados; 
+    }
+    
+    public void setDados(String dados) { 
+        this.dados = dados; 
+    }
+    
+    public LocalDateTime getRegistradoEm() { 
+        return registradoEm; 
+    }
+    
+    public void setRegistradoEm(LocalDateTime registradoEm) { 
+        this.registradoEm = registradoEm; 
+    }
+}
@@ -0,0 +1,69 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Posição até onde um processamento incremental já avançou (high-water mark): a chave de ordenação
+// (posicao, ultimo_id) do último registro tratado, para a próxima execução continuar dali
+@Entity
+@Table(name = "marca_processamento")
+public class MarcaProcessamento {
+    
+    @Id
+    @Column(name = "nome", length = 60)
+    private String nome;
+    
+    @Column(name = "posicao", nullable = false)
+    private LocalDateTime posicao;
+    
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId;
+    
+    @Column(name = "atualizado_em", nullable = false)
+    private LocalDateTime atualizadoEm;
+    
+    // Construtor padrão
+    public MarcaProcessamento() {}
+    
+    // Construtor completo
+    public MarcaProcessamento(String nome, LocalDateTime posicao, Long ultimoId) {
+        this.nome = nome;
+        this.posicao = posicao;
+        this.ultimoId = ultimoId;
+        this.atualizadoEm = LocalDateTime.now();
+    }
+    
+    // Getters e Setters
+    public String getNome() { 
+        return nome; 
+    }
+    
+    public void setNome(String nome) { 
+        this.nome = nome; 
+    }
+    
+    public LocalDateTime getPosicao() { 
+        return posicao; 
+    }
+    
+    public void setPosicao(LocalDateTime posicao) { 
+        this.posicao = posicao; 
+    }
+    
+    public Long getUltimoId() { 
+        return ultimoId; 
+    }
+    
+    public void setUltimoId(Long ultimoId) { 
+        this.ultimoId = ultimoId; 
+    }
+    
+    public LocalDateTime getAtualizadoEm() { 
+        return atualizadoEm; 
+    }
+    
+    public void setAtualizadoEm(LocalDateTime atualizadoEm) { 
+        this.atualizadoEm = atualizadoEm; 
+    }
+}
@@ -1,23 +1,44 @@
 package com.sop.financialsystem.entity;
 
+import com.sop.financialsystem.service.FiltroNumerosListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+// Só o número (natural-id) vai para o cache; o pagamento em si é lido raramente depois de gravado
 @Entity
+@NaturalIdCache(region = "pagamento-numero")
 @Table(name = "pagamentos")
+@EntityListeners(FiltroNumerosListener.class)
 public class Pagamento {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pagamento_seq")
+    @SequenceGenerator(name = "pagamento_seq", sequenceName = "pagamento_seq", allocationSize = 50)
     private Long id;
 
+    @NaturalId(mutable = true)
     private String numeroPagamento;
+
     private LocalDate dataPagamento;
     private BigDecimal valor;
     private String observacao;
 
+    // Mantidos pelo Hibernate, como em Despesa e Empenho
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime criadoEm;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime atualizadoEm;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "empenho_id", nullable = false)
     private Empenho empenho;
@@ -84,4 +105,12 @@ public class Pagamento {
     public void setEmpenhoId(Long empenhoId) {
         this.empenhoId = empenhoId;
     }
+
+    public LocalDateTime getCriadoEm() {
+        return criadoEm;
+    }
+
+    public LocalDateTime getAtualizadoEm() {
+        return atualizadoEm;
+    }
 }
\ No newline at end of file
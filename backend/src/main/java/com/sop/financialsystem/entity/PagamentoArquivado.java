@@ -0,0 +1,78 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Pagamento de uma despesa arquivada; despesa_id evita passar pelo empenho ao listar por despesa
+@Entity
+@Immutable
+@Subselect("SELECT id, numero_pagamento, data_pagamento, valor, observacao, empenho_id, despesa_id, ano FROM pagamento_arquivo")
+@Synchronize("pagamento_arquivo")
+public class PagamentoArquivado {
+    
+    @Id
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "numero_pagamento")
+    private String numeroPagamento;
+    
+    @Column(name = "data_pagamento")
+    private LocalDate dataPagamento;
+    
+    @Column(name = "valor")
+    private BigDecimal valor;
+    
+    @Column(name = "observacao")
+    private String observacao;
+    
+    @Column(name = "empenho_id")
+    private Long empenhoId;
+    
+    @Column(name = "despesa_id")
+    private Long despesaId;
+    
+    @Column(name = "ano")
+    private int ano;
+    
+    // Construtor padrão
+    public PagamentoArquivado() {}
+    
+    // Getters
+    public Long getId() { 
+        return id; 
+    }
+    
+    public String getNumeroPagamento() { 
+        return numeroPagamento; 
+    }
+    
+    public LocalDate getDataPagamento() { 
+        return dataPagamento; 
+    }
+    
+    public BigDecimal getValor() { 
+        return valor; 
+    }
+    
+    public String getObservacao() { 
+        return observacao; 
+    }
+    
+    public Long getEmpenhoId() { 
+        return empenhoId; 
+    }
+    
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public int getAno() { 
+        return ano; 
+    }
+}
@@ -0,0 +1,108 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Primeira resposta dada a um POST com Idempotency-Key, repetida para as requisições seguintes
+// com a mesma chave. A impressão (SHA-256 do corpo da requisição) detecta chave reutilizada com
+// outro conteúdo. Gravada só com app.idempotencia.persistir=true; senão vive apenas em memória
+@Entity
+@Table(name = "resposta_idempotente")
+public class RespostaIdempotente {
+    
+    // Rota + chave informada pelo cliente
+    @Id
+    @Column(name = "chave", length = 400)
+    private String chave;
+    
+    @Column(name = "impressao", length = 64, nullable = false)
+    private String impressao;
+    
+    @Column(name = "status", nullable = false)
+    private Integer status;
+    
+    @Column(name = "tipo_conteudo", length = 100)
+    private String tipoConteudo;
+    
+    @Column(name = "localizacao", length = 200)
+    private String localizacao;
+    
+    @Column(name = "corpo", nullable = false)
+    private byte[] corpo;
+    
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+    
+    // Construtor padrão
+    public RespostaIdempotente() {}
+    
+    // Construtor completo
+    public RespostaIdempotente(String chave, String impressao, Integer status, String tipoConteudo,
+                               String localizacao, byte[] corpo) {
+        this.chave = chave;
+        this.impressao = impressao;
+        this.status = status;
+        this.tipoConteudo = tipoConteudo;
+        this.localizacao = localizacao;
+        this.corpo = corpo;
+        this.criadoEm = LocalDateTime.now();
+    }
+    
+    // Getters e Setters
+    public String getChave() { 
+        return chave; 
+    }
+    
+    public void setChave(String chave) { 
+        this.chave = chave; 
+    }
+    
+    public String getImpressao() { 
+        return impressao; 
+    }
+    
+    public void setImpressao(String impressao) { 
+        this.impressao = impressao; 
+    }
+    
+    public Integer getStatus() { 
+        return status; 
+    }
+    
+    public void setStatus(Integer status) { 
+        this.status = status; 
+    }
+    
+    public String getTipoConteudo() { 
+        return tipoConteudo; 
+    }
+    
+    public void setTipoConteudo(String tipoConteudo) { 
+        this.tipoConteudo = tipoConteudo; 
+    }
+    
+    public String getLocalizacao() { 
+        return localizacao; 
+    }
+    
+    public void setLocalizacao(String localizacao) { 
+        this.localizacao = localizacao; 
+    }
+    
+    public byte[] getCorpo() { 
+        return corpo; 
+    }
+    
+    public void setCorpo(byte[] corpo) { 
+        this.corpo = corpo; 
+    }
+    
+    public LocalDateTime getCriadoEm() { 
+        return criadoEm; 
+    }
+    
+    public void setCriadoEm(LocalDateTime criadoEm) { 
+        this.criadoEm = criadoEm; 
+    }
+}
@@ -0,0 +1,185 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Modelo de leitura desnormalizado (uma linha por despesa), projetado a partir de EventoDominio.
+// Atende às listagens e ao dashboard; nunca é alterado pelas escritas de negócio
+@Entity
+@Table(name = "despesa_resumo")
+public class ResumoDespesa {
+    
+    @Id
+    @Column(name = "despesa_id")
+    private Long despesaId;
+    
+    @Column(name = "numero_protocolo", nullable = false)
+    private String numeroProtocolo;
+    
+    @Column(name = "tipo_despesa", nullable = false)
+    private String tipoDespesa;
+    
+    @Column(name = "data_protocolo", nullable = false)
+    private LocalDateTime dataProtocolo;
+    
+    @Column(name = "data_vencimento", nullable = false)
+    private LocalDateTime dataVencimento;
+    
+    @Column(name = "credor", nullable = false)
+    private String credor;
+    
+    @Column(name = "descricao", columnDefinition = "TEXT", nullable = false)
+    private String descricao;
+    
+    @Column(name = "valor", nullable = false, precision = 15, scale = 2)
+    private BigDecimal valor;
+    
+    @Column(name = "total_empenhado", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalEmpenhado = BigDecimal.ZERO;
+    
+    @Column(name = "total_pago", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalPago = BigDecimal.ZERO;
+    
+    @Column(name = "status", nullable = false, length = 30)
+    private String status;
+    
+    @Column(name = "quantidade_empenhos", nullable = false)
+    private Integer quantidadeEmpenhos = 0;
+    
+    @Column(name = "quantidade_pagamentos", nullable = false)
+    private Integer quantidadePagamentos = 0;
+    
+    @Column(name = "data_ultimo_pagamento")
+    private LocalDate dataUltimoPagamento;
+    
+    // Id do último evento aplicado: eventos com id menor ou igual são ignorados (reaplicação idempotente)
+    @Column(name = "ultimo_evento", nullable = false)
+    private Long ultimoEvento;
+    
+    // Construtor padrão
+    public ResumoDespesa() {}
+    
+    // Getters e Setters
+    public Long getDespesaId() { 
+        return despesaId; 
+    }
+    
+    public void setDespesaId(Long despesaId) { 
+        this.despesaId = despesaId; 
+    }
+    
+    public String getNumeroProtocolo() { 
+        return numeroProtocolo; 
+    }
+    
+    public void setNumeroProtocolo(String numeroProtocolo) { 
+        this.numeroProtocolo = numeroProtocolo; 
+    }
+    
+    public String getTipoDespesa() { 
+        return tipoDespesa; 
+    }
+    
+    public void setTipoDespesa(String tipoDespesa) { 
+        this.tipoDespesa = tipoDespesa; 
+    }
+    
+    public LocalDateTime getDataProtocolo() { 
+        return dataProtocolo; 
+    }
+    
+    public void setDataProtocolo(LocalDateTime dataProtocolo) { 
+        this.dataProtocolo = dataProtocolo; 
+    }
+    
+    public LocalDateTime getDataVencimento() { 
+        return dataVencimento; 
+    }
+    
+    public void setDataVencimento(LocalDateTime dataVencimento) { 
+        this.dataVencimento = dataVencimento; 
+    }
+    
+    public String getCredor() { 
+        return credor; 
+    }
+    
+    public void setCredor(String credor) { 
+        this.credor = credor; 
+    }
+    
+    public String getDescricao() { 
+        return descricao; 
+    }
+    
+    public void setDescricao(String descricao) { 
+        this.descricao = descricao; 
+    }
+    
+    public BigDecimal getValor() { 
+        return valor; 
+    }
+    
+    public void setValor(BigDecimal valor) { 
+        this.valor = valor; 
+    }
+    
+    public BigDecimal getTotalEmpenhado() { 
+        return totalEmpenhado; 
+    }
+    
+    public void setTotalEmpenhado(BigDecimal totalEmpenhado) { 
+        this.totalEmpenhado = totalEmpenhado; 
+    }
+    
+    public BigDecimal getTotalPago() { 
+        return totalPago; 
+    }
+    
+    public void setTotalPago(BigDecimal totalPago) { 
+        this.totalPago = totalPago; 
+    }
+    
+    public String getStatus() { 
+        return status; 
+    }
+    
+    public void setStatus(String status) { 
+        this.status = status; 
+    }
+    
+    public Integer getQuantidadeEmpenhos() { 
+        return quantidadeEmpenhos; 
+    }
+    
+    public void setQuantidadeEmpenhos(Integer quantidadeEmpenhos) { 
+        this.quantidadeEmpenhos = quantidadeEmpenhos; 
+    }
+    
+    public Integer getQuantidadePagamentos() { 
+        return quantidadePagamentos; 
+    }
+    
+    public void setQuantidadePagamentos(Integer quantidadePagamentos) { 
+        this.quantidadePagamentos = quantidadePagamentos; 
+    }
+    
+    public LocalDate getDataUltimoPagamento() { 
+        return dataUltimoPagamento; 
+    }
+    
+    public void setDataUltimoPagamento(LocalDate dataUltimoPagamento) { 
+        this.dataUltimoPagamento = dataUltimoPagamento; 
+    }
+    
+    public Long getUltimoEvento() { 
+        return ultimoEvento; 
+    }
+    
+    public void setUltimoEvento(Long ultimoEvento) { 
+        this.ultimoEvento = ultimoEvento; 
+    }
+}
@@ -0,0 +1,43 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Linha da view materializada mv_saldo_vencimento: despesas não pagas e saldo a pagar por dia de vencimento
+@Entity
+@Immutable
+@Subselect("SELECT dia, quantidade, saldo FROM mv_saldo_vencimento")
+@Synchronize("mv_saldo_vencimento")
+public class SaldoVencimento {
+    
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+    
+    @Column(name = "quantidade")
+    private Long quantidade;
+    
+    @Column(name = "saldo")
+    private BigDecimal saldo;
+    
+    // Construtor padrão
+    public SaldoVencimento() {}
+    
+    // Getters
+    public LocalDate getDia() { 
+        return dia; 
+    }
+    
+    public Long getQuantidade() { 
+        return quantidade; 
+    }
+    
+    public BigDecimal getSaldo() { 
+        return saldo; 
+    }
+}
@@ -0,0 +1,61 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+
+// Linha da view materializada mv_totais_despesa (db/relatorios.sql): quantidade e soma do valor das
+// despesas por status, tipo ou credor. Somente leitura; atualizada por AtualizacaoRelatoriosService
+@Entity
+@Immutable
+@Subselect("SELECT id, dimensao, chave, quantidade, total FROM mv_totais_despesa")
+@Synchronize("mv_totais_despesa")
+public class TotalDespesaAgrupado {
+    
+    public static final String STATUS = "STATUS";
+    public static final String TIPO = "TIPO";
+    public static final String CREDOR = "CREDOR";
+    
+    @Id
+    @Column(name = "id")
+    private String id;
+    
+    @Column(name = "dimensao")
+    private String dimensao;
+    
+    @Column(name = "chave")
+    private String chave;
+    
+    @Column(name = "quantidade")
+    private Long quantidade;
+    
+    @Column(name = "total")
+    private BigDecimal total;
+    
+    // Construtor padrão
+    public TotalDespesaAgrupado() {}
+    
+    // Getters
+    public String getId() { 
+        return id; 
+    }
+    
+    public String getDimensao() { 
+        return dimensao; 
+    }
+    
+    public String getChave() { 
+        return chave; 
+    }
+    
+    public Long getQuantidade() { 
+        return quantidade; 
+    }
+    
+    public BigDecimal getTotal() { 
+        return total; 
+    }
+}
@@ -0,0 +1,56 @@
+package com.sop.financialsystem.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.math.BigDecimal;
+
+// Linha da view materializada mv_totais_mensais: empenhado e pago no mês (id = ano * 100 + mês)
+@Entity
+@Immutable
+@Subselect("SELECT id, ano, mes, empenhado, pago FROM mv_totais_mensais")
+@Synchronize("mv_totais_mensais")
+public class TotalMensal {
+    
+    @Id
+    @Column(name = "id")
+    private Integer id;
+    
+    @Column(name = "ano")
+    private int ano;
+    
+    @Column(name = "mes")
+    private int mes;
+    
+    @Column(name = "empenhado")
+    private BigDecimal empenhado;
+    
+    @Column(name = "pago")
+    private BigDecimal pago;
+    
+    // Construtor padrão
+    public TotalMensal() {}
+    
+    // Getters
+    public Integer getId() { 
+        return id; 
+    }
+    
+    public int getAno() { 
+        return ano; 
+    }
+    
+    public int getMes() { 
+        return mes; 
+    }
+    
+    public BigDecimal getEmpenhado() { 
+        return empenhado; 
+    }
+    
+    public BigDecimal getPago() { 
+        return pago; 
+    }
+}
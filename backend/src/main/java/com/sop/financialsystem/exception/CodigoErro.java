@@ -0,0 +1,27 @@
+package com.sop.financialsystem.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Códigos de erro devolvidos no corpo das respostas (ErroDTO.codigo), com o status HTTP de cada um
+public enum CodigoErro {
+    
+    DADOS_INVALIDOS(HttpStatus.BAD_REQUEST),
+    NAO_ENCONTRADO(HttpStatus.NOT_FOUND),
+    NUMERO_DUPLICADO(HttpStatus.CONFLICT),
+    VALOR_EXCEDIDO(HttpStatus.UNPROCESSABLE_ENTITY),
+    EXCLUSAO_BLOQUEADA(HttpStatus.CONFLICT),
+    ALTERACAO_CONCORRENTE(HttpStatus.CONFLICT),
+    REQUISICAO_EM_ANDAMENTO(HttpStatus.CONFLICT),
+    CHAVE_IDEMPOTENCIA_REUTILIZADA(HttpStatus.UNPROCESSABLE_ENTITY),
+    ERRO_INTERNO(HttpStatus.INTERNAL_SERVER_ERROR);
+    
+    private final HttpStatus status;
+    
+    CodigoErro(HttpStatus status) {
+        this.status = status;
+    }
+    
+    public HttpStatus getStatus() { 
+        return status; 
+    }
+}
@@ -0,0 +1,18 @@
+package com.sop.financialsystem.exception;
+
+// Rejeição esperada de uma requisição (número repetido, valor acima do saldo, registro inexistente).
+// Sem stack trace nem supressão: o tratamento é sempre o mesmo (TratadorErros) e a pilha não diz
+// nada sobre a causa, mas custaria ser preenchida em cada rejeição
+public class RegraNegocioException extends RuntimeException {
+    
+    private final CodigoErro codigo;
+    
+    public RegraNegocioException(CodigoErro codigo, String mensagem) {
+        super(mensagem, null, false, false);
+        this.codigo = codigo;
+    }
+    
+    public CodigoErro getCodigo() { 
+        return codigo; 
+    }
+}
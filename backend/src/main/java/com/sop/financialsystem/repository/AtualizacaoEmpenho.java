@@ -0,0 +1,23 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.Empenho;
+
+// Resultado da leitura para atualização: o empenho e se o número informado já pertence a outro empenho
+public class AtualizacaoEmpenho {
+    
+    private final Empenho empenho;
+    private final boolean numeroEmUso;
+    
+    public AtualizacaoEmpenho(Empenho empenho, boolean numeroEmUso) {
+        this.empenho = empenho;
+        this.numeroEmUso = numeroEmUso;
+    }
+    
+    public Empenho getEmpenho() { 
+        return empenho; 
+    }
+    
+    public boolean isNumeroEmUso() { 
+        return numeroEmUso; 
+    }
+}
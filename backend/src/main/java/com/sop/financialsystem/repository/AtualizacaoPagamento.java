@@ -0,0 +1,31 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+
+// Resultado da leitura para atualização: o pagamento, se o número informado já pertence a outro
+// pagamento e o empenho de destino (null quando não informado ou inexistente)
+public class AtualizacaoPagamento {
+    
+    private final Pagamento pagamento;
+    private final boolean numeroEmUso;
+    private final Empenho novoEmpenho;
+    
+    public AtualizacaoPagamento(Pagamento pagamento, boolean numeroEmUso, Empenho novoEmpenho) {
+        this.pagamento = pagamento;
+        this.numeroEmUso = numeroEmUso;
+        this.novoEmpenho = novoEmpenho;
+    }
+    
+    public Pagamento getPagamento() { 
+        return pagamento; 
+    }
+    
+    public boolean isNumeroEmUso() { 
+        return numeroEmUso; 
+    }
+    
+    public Empenho getNovoEmpenho() { 
+        return novoEmpenho; 
+    }
+}
@@ -0,0 +1,40 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.entity.DespesaArquivada;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+// Consultas ao arquivo, só usadas quando pedidas explicitamente (/api/arquivo)
+@Repository
+public interface DespesaArquivadaRepository extends JpaRepository<DespesaArquivada, Long> {
+    
+    String PROJECAO_DTO = "SELECT new com.sop.financialsystem.dto.DespesaDTO(" +
+                          "a.id, a.numeroProtocolo, a.tipoDespesa, a.dataProtocolo, a.dataVencimento, " +
+                          "a.credor, a.descricao, a.valor, a.totalEmpenhado, a.totalPago, a.status) " +
+                          "FROM DespesaArquivada a";
+    
+    // Página de um ano por cursor de id; o filtro por ano restringe a leitura a uma partição
+    @Query(PROJECAO_DTO + " WHERE a.ano = :ano AND a.id > :after ORDER BY a.id")
+    List<DespesaDTO> findPagina(@Param("ano") int ano, @Param("after") long after, Pageable pageable);
+    
+    @Query(PROJECAO_DTO + " WHERE a.id = :id")
+    Optional<DespesaDTO> findDTOById(@Param("id") Long id);
+    
+    @Query("SELECT new com.sop.financialsystem.dto.EmpenhoDTO(e.id, e.numeroEmpenho, e.dataEmpenho, e.valor, " +
+           "e.observacao, e.despesaId) FROM EmpenhoArquivado e WHERE e.despesaId = :despesaId ORDER BY e.id")
+    List<EmpenhoDTO> findEmpenhosByDespesaId(@Param("despesaId") Long despesaId);
+    
+    @Query("SELECT new com.sop.financialsystem.dto.PagamentoDTO(p.id, p.numeroPagamento, p.dataPagamento, p.valor, " +
+           "p.observacao, e.id, e.numeroEmpenho) FROM PagamentoArquivado p JOIN EmpenhoArquivado e ON e.id = p.empenhoId " +
+           "WHERE p.despesaId = :despesaId ORDER BY p.id")
+    List<PagamentoDTO> findPagamentosByDespesaId(@Param("despesaId") Long despesaId);
+}
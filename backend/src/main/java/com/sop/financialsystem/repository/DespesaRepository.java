@@ -1,20 +1,115 @@
 package com.sop.financialsystem.repository;
 
+import com.sop.financialsystem.dto.DespesaDTO;
 import com.sop.financialsystem.entity.Despesa;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DespesaRepository extends JpaRepository<Despesa, Long> {
+public interface DespesaRepository extends JpaRepository<Despesa, Long>, DespesaRepositoryCustom {
     
-    Optional<Despesa> findByNumeroProtocolo(String numeroProtocolo);
+    // Verificação de unicidade em lote (importação): uma única consulta para vários números.
+    // Os números de despesas arquivadas continuam reservados
+    @Query("SELECT d.numeroProtocolo FROM Despesa d WHERE d.numeroProtocolo IN :numeros " +
+           "UNION ALL SELECT a.numeroProtocolo FROM DespesaArquivada a WHERE a.numeroProtocolo IN :numeros")
+    List<String> findNumerosProtocoloExistentes(@Param("numeros") Collection<String> numeros);
     
-    boolean existsByNumeroProtocolo(String numeroProtocolo);
+    // Carga do filtro de números na subida; deve ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT d.numeroProtocolo FROM Despesa d UNION ALL SELECT a.numeroProtocolo FROM DespesaArquivada a")
+    Stream<String> streamNumerosProtocolo();
     
     @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Empenho e WHERE e.despesa.id = :despesaId")
     boolean hasEmpenhos(@Param("despesaId") Long despesaId);
-}
\ No newline at end of file
+    
+    // SELECT ... FOR UPDATE na despesa: o bloqueio da despesa protege também seus empenhos e
+    // pagamentos, serializando as escritas concorrentes que disputam o mesmo teto de valor
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Despesa d WHERE d.id = :id")
+    Optional<Despesa> findByIdForUpdate(@Param("id") Long id);
+    
+    // Versão da despesa para requisições condicionais, sem carregar a entidade
+    @Query("SELECT d.id, d.atualizadoEm FROM Despesa d WHERE d.id = :id")
+    List<Object[]> findVersaoById(@Param("id") Long id);
+    
+    // Bloqueia, sempre em ordem de id para evitar deadlocks, as despesas dos empenhos informados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Despesa d WHERE d.id IN " +
+           "(SELECT e.despesa.id FROM Empenho e WHERE e.id IN :empenhoIds) ORDER BY d.id")
+    List<Despesa> findAllByEmpenhoIdsForUpdate(@Param("empenhoIds") Collection<Long> empenhoIds);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Despesa d WHERE d.id IN :ids ORDER BY d.id")
+    List<Despesa> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    // Bloqueia num único conjunto, em ordem de id, as despesas informadas e as dos empenhos informados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Despesa d WHERE d.id IN :ids OR d.id IN " +
+           "(SELECT e.despesa.id FROM Empenho e WHERE e.id IN :empenhoIds) ORDER BY d.id")
+    List<Despesa> findAllByIdOuEmpenhoIdsForUpdate(@Param("ids") Collection<Long> ids,
+                                                   @Param("empenhoIds") Collection<Long> empenhoIds);
+    
+    // Candidatas ao arquivamento, em ordem de id a partir do cursor; revalidadas sob bloqueio. Despesas
+    // gravadas antes de updated_at existir não têm a data: vale a do protocolo
+    @Query("SELECT d.id FROM Despesa d WHERE d.status = :status " +
+           "AND COALESCE(d.atualizadoEm, d.dataProtocolo) < :limite " +
+           "AND d.id > :after ORDER BY d.id")
+    List<Long> findIdsParaArquivamento(@Param("status") String status, @Param("limite") LocalDateTime limite,
+                                       @Param("after") long after, Pageable pageable);
+    
+    // Chaves (id, dataVencimento) das despesas que venceram depois da marca (posicao, ultimoId) e até o
+    // limite, em ordem de vencimento. O intervalo é atendido pelo índice (data_vencimento, id) de
+    // db/vencimentos.sql: só as linhas novas são lidas
+    @Query("SELECT d.id, d.dataVencimento FROM Despesa d " +
+           "WHERE d.dataVencimento >= :posicao AND d.dataVencimento <= :limite " +
+           "AND NOT (d.dataVencimento = :posicao AND d.id <= :ultimoId) AND d.status <> :paga " +
+           "ORDER BY d.dataVencimento, d.id")
+    List<Object[]> findVencidasApos(@Param("posicao") LocalDateTime posicao, @Param("ultimoId") long ultimoId,
+                                    @Param("limite") LocalDateTime limite, @Param("paga") String paga,
+                                    Pageable pageable);
+    
+    // Projeção com os totais e o status materializados na própria despesa
+    @Query("SELECT new com.sop.financialsystem.dto.DespesaDTO(d.id, d.numeroProtocolo, d.tipoDespesa, " +
+           "d.dataProtocolo, d.dataVencimento, d.credor, d.descricao, d.valor, " +
+           "d.totalEmpenhado, d.totalPago, d.status) " +
+           "FROM Despesa d WHERE d.id = :id")
+    Optional<DespesaDTO> findByIdComTotais(@Param("id") Long id);
+    
+    // Leitura sequencial para exportação: cursor no banco (fetch size) em vez de materializar a tabela.
+    // Deve ser consumido dentro de uma transação e fechado ao final
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.sop.financialsystem.dto.DespesaDTO(d.id, d.numeroProtocolo, d.tipoDespesa, " +
+           "d.dataProtocolo, d.dataVencimento, d.credor, d.descricao, d.valor, " +
+           "d.totalEmpenhado, d.totalPago, d.status) " +
+           "FROM Despesa d ORDER BY d.id")
+    Stream<DespesaDTO> streamAllComTotais();
+    
+    // Carga inicial do log de eventos: cada despesa com suas contagens e a data do último pagamento
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d, " +
+           "(SELECT COUNT(e) FROM Empenho e WHERE e.despesa.id = d.id), " +
+           "(SELECT COUNT(p) FROM Pagamento p WHERE p.empenho.despesa.id = d.id), " +
+           "(SELECT MAX(p.dataPagamento) FROM Pagamento p WHERE p.empenho.despesa.id = d.id) " +
+           "FROM Despesa d ORDER BY d.id")
+    Stream<Object[]> streamComContagens();
+    
+    // Reconciliação: despesas cujos totais materializados divergem das somas reais
+    @Query("SELECT d.id FROM Despesa d " +
+           "WHERE d.totalEmpenhado <> COALESCE((SELECT SUM(e.valor) FROM Empenho e WHERE e.despesa.id = d.id), 0) " +
+           "OR d.totalPago <> COALESCE((SELECT SUM(p.valor) FROM Pagamento p WHERE p.empenho.despesa.id = d.id), 0)")
+    List<Long> findIdsComTotaisDivergentes();
+}
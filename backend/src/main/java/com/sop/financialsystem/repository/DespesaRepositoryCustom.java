@@ -0,0 +1,13 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.Despesa;
+
+import java.util.Optional;
+
+public interface DespesaRepositoryCustom {
+    
+    // Busca e verificação pelo protocolo (natural-id), resolvidas pelo cache de segundo nível quando possível
+    Optional<Despesa> findByNumeroProtocolo(String numeroProtocolo);
+    
+    boolean existsByNumeroProtocolo(String numeroProtocolo);
+}
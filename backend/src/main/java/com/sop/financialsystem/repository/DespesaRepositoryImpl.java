@@ -0,0 +1,31 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.Despesa;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class DespesaRepositoryImpl implements DespesaRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Despesa> findByNumeroProtocolo(String numeroProtocolo) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Despesa.class).loadOptional(numeroProtocolo);
+    }
+    
+    // getReference resolve só o id (cache de natural-id ou SELECT do id), sem carregar a despesa;
+    // só quando o número não está em uso é que o arquivo é consultado
+    @Override
+    public boolean existsByNumeroProtocolo(String numeroProtocolo) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Despesa.class).getReference(numeroProtocolo) != null ||
+               !entityManager.createQuery("SELECT a.id FROM DespesaArquivada a WHERE a.numeroProtocolo = :numero", Long.class)
+                   .setParameter("numero", numeroProtocolo)
+                   .setMaxResults(1)
+                   .getResultList()
+                   .isEmpty();
+    }
+}
@@ -1,30 +1,54 @@
 package com.sop.financialsystem.repository;
 
+import com.sop.financialsystem.dto.EmpenhoDTO;
 import com.sop.financialsystem.entity.Empenho;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmpenhoRepository extends JpaRepository<Empenho, Long> {
+public interface EmpenhoRepository extends JpaRepository<Empenho, Long>, EmpenhoRepositoryCustom {
     
-    Optional<Empenho> findByNumeroEmpenho(String numeroEmpenho);
+    // Leitura em uma única consulta: o protocolo da despesa vem do join, sem inicializar o proxy lazy
+    String PROJECAO_DTO = "SELECT new com.sop.financialsystem.dto.EmpenhoDTO(e.id, e.numeroEmpenho, e.dataEmpenho, " +
+                          "e.valor, e.observacao, d.id, d.numeroProtocolo) FROM Empenho e JOIN e.despesa d";
     
-    boolean existsByNumeroEmpenho(String numeroEmpenho);
+    @Query(PROJECAO_DTO + " WHERE e.id = :id")
+    Optional<EmpenhoDTO> findDTOById(@Param("id") Long id);
     
-    List<Empenho> findByDespesaId(Long despesaId);
+    @Query(PROJECAO_DTO + " WHERE d.id = :despesaId ORDER BY e.id")
+    List<EmpenhoDTO> findDTOsByDespesaId(@Param("despesaId") Long despesaId);
+    
+    // Versão do empenho (e da despesa, cujo protocolo aparece no DTO) sem carregar entidades
+    @Query("SELECT e.id, e.atualizadoEm, d.atualizadoEm FROM Empenho e JOIN e.despesa d WHERE e.id = :id")
+    List<Object[]> findVersaoById(@Param("id") Long id);
+    
+    @Query("SELECT e.numeroEmpenho FROM Empenho e WHERE e.numeroEmpenho IN :numeros " +
+           "UNION ALL SELECT a.numeroEmpenho FROM EmpenhoArquivado a WHERE a.numeroEmpenho IN :numeros")
+    List<String> findNumerosEmpenhoExistentes(@Param("numeros") Collection<String> numeros);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT e.numeroEmpenho FROM Empenho e UNION ALL SELECT a.numeroEmpenho FROM EmpenhoArquivado a")
+    Stream<String> streamNumerosEmpenho();
     
     @Query("SELECT SUM(e.valor) FROM Empenho e WHERE e.despesa.id = :despesaId")
     BigDecimal sumValorByDespesaId(@Param("despesaId") Long despesaId);
     
-    @Query("SELECT COALESCE(SUM(e.valor), 0) FROM Empenho e WHERE e.despesa.id = :despesaId AND e.id != :empenhoId")
-    BigDecimal sumValorByDespesaIdExcluding(@Param("despesaId") Long despesaId, @Param("empenhoId") Long empenhoId);
-    
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Pagamento p WHERE p.empenho.id = :empenhoId")
     boolean hasPagamentos(@Param("empenhoId") Long empenhoId);
-}
\ No newline at end of file
+    
+    // Reconciliação: empenhos cujo total pago materializado diverge da soma real
+    @Query("SELECT e.id FROM Empenho e " +
+           "WHERE e.totalPago <> COALESCE((SELECT SUM(p.valor) FROM Pagamento p WHERE p.empenho.id = e.id), 0)")
+    List<Long> findIdsComTotalPagoDivergente();
+}
@@ -0,0 +1,25 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.EmpenhoFiltro;
+import com.sop.financialsystem.entity.Empenho;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface EmpenhoRepositoryCustom {
+    
+    // Paginação por cursor (keyset): retorna até "limite" empenhos com id maior que "after"
+    List<EmpenhoDTO> findPagina(EmpenhoFiltro filtro, Long after, int limite);
+    
+    // Linhas (id, versões) da mesma página, para a ETag da listagem
+    List<Object[]> findVersoesPagina(EmpenhoFiltro filtro, Long after, int limite);
+    
+    // Uma única consulta com o empenho e a verificação de unicidade do novo número
+    Optional<AtualizacaoEmpenho> findParaAtualizacao(Long id, String numeroEmpenho);
+    
+    // Busca e verificação pelo número (natural-id), resolvidas pelo cache de segundo nível quando possível
+    Optional<Empenho> findByNumeroEmpenho(String numeroEmpenho);
+    
+    boolean existsByNumeroEmpenho(String numeroEmpenho);
+}
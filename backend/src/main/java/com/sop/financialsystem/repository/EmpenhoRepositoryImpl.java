@@ -0,0 +1,90 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.EmpenhoFiltro;
+import com.sop.financialsystem.entity.Empenho;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class EmpenhoRepositoryImpl implements EmpenhoRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Empenho> findByNumeroEmpenho(String numeroEmpenho) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Empenho.class).loadOptional(numeroEmpenho);
+    }
+    
+    // getReference resolve só o id (cache de natural-id ou SELECT do id), sem carregar o empenho;
+    // só quando o número não está em uso é que o arquivo é consultado
+    @Override
+    public boolean existsByNumeroEmpenho(String numeroEmpenho) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Empenho.class).getReference(numeroEmpenho) != null ||
+               !entityManager.createQuery("SELECT a.id FROM EmpenhoArquivado a WHERE a.numeroEmpenho = :numero", Long.class)
+                   .setParameter("numero", numeroEmpenho)
+                   .setMaxResults(1)
+                   .getResultList()
+                   .isEmpty();
+    }
+    
+    @Override
+    public List<EmpenhoDTO> findPagina(EmpenhoFiltro filtro, Long after, int limite) {
+        return consultarPagina(EmpenhoRepository.PROJECAO_DTO, EmpenhoDTO.class, filtro, after, limite);
+    }
+    
+    // Mesmos filtros e ordem da página; a despesa entra porque o número do protocolo faz parte do item
+    @Override
+    public List<Object[]> findVersoesPagina(EmpenhoFiltro filtro, Long after, int limite) {
+        return consultarPagina("SELECT e.id, e.atualizadoEm, d.atualizadoEm FROM Empenho e JOIN e.despesa d",
+            Object[].class, filtro, after, limite);
+    }
+    
+    private <T> List<T> consultarPagina(String select, Class<T> tipo, EmpenhoFiltro filtro, Long after, int limite) {
+        StringBuilder jpql = new StringBuilder(select + " WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        
+        if (after != null) {
+            jpql.append(" AND e.id > :after");
+            params.put("after", after);
+        }
+        if (filtro.getDespesaId() != null) {
+            jpql.append(" AND d.id = :despesaId");
+            params.put("despesaId", filtro.getDespesaId());
+        }
+        if (filtro.getDataDe() != null) {
+            jpql.append(" AND e.dataEmpenho >= :dataDe");
+            params.put("dataDe", filtro.getDataDe());
+        }
+        if (filtro.getDataAte() != null) {
+            jpql.append(" AND e.dataEmpenho <= :dataAte");
+            params.put("dataAte", filtro.getDataAte());
+        }
+        jpql.append(" ORDER BY e.id");
+        
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), tipo);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+    
+    @Override
+    public Optional<AtualizacaoEmpenho> findParaAtualizacao(Long id, String numeroEmpenho) {
+        List<Object[]> linhas = entityManager.createQuery(
+                "SELECT e, (SELECT COUNT(o) FROM Empenho o WHERE o.numeroEmpenho = :numero AND o.id <> e.id) + " +
+                "(SELECT COUNT(a) FROM EmpenhoArquivado a WHERE a.numeroEmpenho = :numero) " +
+                "FROM Empenho e WHERE e.id = :id", Object[].class)
+                .setParameter("numero", numeroEmpenho)
+                .setParameter("id", id)
+                .getResultList();
+        return linhas.stream()
+                .findFirst()
+                .map(linha -> new AtualizacaoEmpenho((Empenho) linha[0], ((Long) linha[1]) > 0));
+    }
+}
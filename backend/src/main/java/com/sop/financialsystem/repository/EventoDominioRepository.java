@@ -0,0 +1,34 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.EventoDominio;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface EventoDominioRepository extends JpaRepository<EventoDominio, Long> {
+    
+    // Eventos das despesas informadas posteriores a "apos", na ordem de aplicação
+    @Query("SELECT e FROM EventoDominio e WHERE e.despesaId IN :despesaIds AND e.id > :apos " +
+           "ORDER BY e.despesaId, e.id")
+    List<EventoDominio> findByDespesaIdsApos(@Param("despesaIds") Collection<Long> despesaIds, @Param("apos") Long apos);
+    
+    // Despesas com eventos registrados desde "desde" ainda não aplicados na projeção
+    @Query("SELECT DISTINCT e.despesaId FROM EventoDominio e WHERE e.registradoEm >= :desde AND e.id > " +
+           "COALESCE((SELECT r.ultimoEvento FROM ResumoDespesa r WHERE r.despesaId = e.despesaId), 0)")
+    List<Long> findDespesaIdsPendentes(@Param("desde") LocalDateTime desde);
+    
+    // Reprodução completa do log, agrupada por despesa; deve ser consumido dentro de uma transação
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e FROM EventoDominio e ORDER BY e.despesaId, e.id")
+    Stream<EventoDominio> streamParaReconstrucao();
+}
@@ -0,0 +1,9 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.MarcaProcessamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MarcaProcessamentoRepository extends JpaRepository<MarcaProcessamento, String> {
+}
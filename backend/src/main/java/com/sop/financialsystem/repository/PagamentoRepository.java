@@ -1,27 +1,56 @@
 package com.sop.financialsystem.repository;
 
+import com.sop.financialsystem.dto.PagamentoDTO;
 import com.sop.financialsystem.entity.Pagamento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
+public interface PagamentoRepository extends JpaRepository<Pagamento, Long>, PagamentoRepositoryCustom {
     
-    Optional<Pagamento> findByNumeroPagamento(String numeroPagamento);
+    // Leitura em uma única consulta: o número do empenho vem do join, sem inicializar o proxy lazy
+    String PROJECAO_DTO = "SELECT new com.sop.financialsystem.dto.PagamentoDTO(p.id, p.numeroPagamento, p.dataPagamento, " +
+                          "p.valor, p.observacao, e.id, e.numeroEmpenho) FROM Pagamento p JOIN p.empenho e";
     
-    boolean existsByNumeroPagamento(String numeroPagamento);
+    @Query(PROJECAO_DTO + " WHERE p.id = :id")
+    Optional<PagamentoDTO> findDTOById(@Param("id") Long id);
     
-    List<Pagamento> findByEmpenhoId(Long empenhoId);
+    @Query(PROJECAO_DTO + " WHERE p.empenhoId = :empenhoId ORDER BY p.id")
+    List<PagamentoDTO> findDTOsByEmpenhoId(@Param("empenhoId") Long empenhoId);
+    
+    // Versão do pagamento (e do empenho, cujo número aparece no DTO) sem carregar entidades
+    @Query("SELECT p.id, p.atualizadoEm, e.atualizadoEm FROM Pagamento p JOIN p.empenho e WHERE p.id = :id")
+    List<Object[]> findVersaoById(@Param("id") Long id);
+    
+    @Query("SELECT p.numeroPagamento FROM Pagamento p WHERE p.numeroPagamento IN :numeros " +
+           "UNION ALL SELECT a.numeroPagamento FROM PagamentoArquivado a WHERE a.numeroPagamento IN :numeros")
+    List<String> findNumerosPagamentoExistentes(@Param("numeros") Collection<String> numeros);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.numeroPagamento FROM Pagamento p UNION ALL SELECT a.numeroPagamento FROM PagamentoArquivado a")
+    Stream<String> streamNumerosPagamento();
+    
+    @Query("SELECT p.empenhoId FROM Pagamento p WHERE p.id = :id")
+    Optional<Long> findEmpenhoIdById(@Param("id") Long id);
     
     @Query("SELECT SUM(p.valor) FROM Pagamento p WHERE p.empenho.id = :empenhoId")
     BigDecimal sumValorByEmpenhoId(@Param("empenhoId") Long empenhoId);
     
     @Query("SELECT SUM(p.valor) FROM Pagamento p WHERE p.empenho.despesa.id = :despesaId")
     BigDecimal sumValorByDespesaId(@Param("despesaId") Long despesaId);
-}
\ No newline at end of file
+    
+    @Query("SELECT MAX(p.dataPagamento) FROM Pagamento p WHERE p.empenho.despesa.id = :despesaId")
+    LocalDate findUltimaDataPagamentoByDespesaId(@Param("despesaId") Long despesaId);
+}
@@ -0,0 +1,25 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PagamentoFiltro;
+import com.sop.financialsystem.entity.Pagamento;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PagamentoRepositoryCustom {
+    
+    // Paginação por cursor (keyset): retorna até "limite" pagamentos com id maior que "after"
+    List<PagamentoDTO> findPagina(PagamentoFiltro filtro, Long after, int limite);
+    
+    // Linhas (id, versões) da mesma página, para a ETag da listagem
+    List<Object[]> findVersoesPagina(PagamentoFiltro filtro, Long after, int limite);
+    
+    // Uma única consulta com o pagamento, a verificação de unicidade do novo número e o empenho de destino
+    Optional<AtualizacaoPagamento> findParaAtualizacao(Long id, String numeroPagamento, Long novoEmpenhoId);
+    
+    // Busca e verificação pelo número (natural-id), resolvidas pelo cache de segundo nível quando possível
+    Optional<Pagamento> findByNumeroPagamento(String numeroPagamento);
+    
+    boolean existsByNumeroPagamento(String numeroPagamento);
+}
@@ -0,0 +1,101 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PagamentoFiltro;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class PagamentoRepositoryImpl implements PagamentoRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<Pagamento> findByNumeroPagamento(String numeroPagamento) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Pagamento.class).loadOptional(numeroPagamento);
+    }
+    
+    // getReference resolve só o id (cache de natural-id ou SELECT do id), sem carregar o pagamento;
+    // só quando o número não está em uso é que o arquivo é consultado
+    @Override
+    public boolean existsByNumeroPagamento(String numeroPagamento) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Pagamento.class).getReference(numeroPagamento) != null ||
+               !entityManager.createQuery("SELECT a.id FROM PagamentoArquivado a WHERE a.numeroPagamento = :numero", Long.class)
+                   .setParameter("numero", numeroPagamento)
+                   .setMaxResults(1)
+                   .getResultList()
+                   .isEmpty();
+    }
+    
+    @Override
+    public List<PagamentoDTO> findPagina(PagamentoFiltro filtro, Long after, int limite) {
+        return consultarPagina(PagamentoRepository.PROJECAO_DTO, PagamentoDTO.class, filtro, after, limite);
+    }
+    
+    // Mesmos filtros e ordem da página; o empenho entra porque o número do empenho faz parte do item
+    @Override
+    public List<Object[]> findVersoesPagina(PagamentoFiltro filtro, Long after, int limite) {
+        return consultarPagina("SELECT p.id, p.atualizadoEm, e.atualizadoEm FROM Pagamento p JOIN p.empenho e",
+            Object[].class, filtro, after, limite);
+    }
+    
+    private <T> List<T> consultarPagina(String select, Class<T> tipo, PagamentoFiltro filtro, Long after, int limite) {
+        StringBuilder jpql = new StringBuilder(select + " WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        
+        if (after != null) {
+            jpql.append(" AND p.id > :after");
+            params.put("after", after);
+        }
+        if (filtro.getEmpenhoId() != null) {
+            jpql.append(" AND p.empenhoId = :empenhoId");
+            params.put("empenhoId", filtro.getEmpenhoId());
+        }
+        if (filtro.getDataDe() != null) {
+            jpql.append(" AND p.dataPagamento >= :dataDe");
+            params.put("dataDe", filtro.getDataDe());
+        }
+        if (filtro.getDataAte() != null) {
+            jpql.append(" AND p.dataPagamento <= :dataAte");
+            params.put("dataAte", filtro.getDataAte());
+        }
+        jpql.append(" ORDER BY p.id");
+        
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), tipo);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+    
+    @Override
+    public Optional<AtualizacaoPagamento> findParaAtualizacao(Long id, String numeroPagamento, Long novoEmpenhoId) {
+        // O número também não pode ser o de um pagamento arquivado
+        String jpql = "SELECT p, (SELECT COUNT(o) FROM Pagamento o WHERE o.numeroPagamento = :numero AND o.id <> p.id) + " +
+                      "(SELECT COUNT(a) FROM PagamentoArquivado a WHERE a.numeroPagamento = :numero)" +
+                      (novoEmpenhoId != null ? ", n" : "") +
+                      " FROM Pagamento p JOIN FETCH p.empenho" +
+                      (novoEmpenhoId != null ? " LEFT JOIN Empenho n ON n.id = :novoEmpenhoId" : "") +
+                      " WHERE p.id = :id";
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class)
+                .setParameter("numero", numeroPagamento)
+                .setParameter("id", id);
+        if (novoEmpenhoId != null) {
+            query.setParameter("novoEmpenhoId", novoEmpenhoId);
+        }
+        return query.getResultList().stream()
+                .findFirst()
+                .map(linha -> new AtualizacaoPagamento(
+                    (Pagamento) linha[0],
+                    ((Long) linha[1]) > 0,
+                    novoEmpenhoId != null ? (Empenho) linha[2] : null
+                ));
+    }
+}
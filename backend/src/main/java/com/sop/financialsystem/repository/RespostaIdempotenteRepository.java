@@ -0,0 +1,21 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.RespostaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+    
+    // Remove as respostas fora da retenção num único comando, sem carregá-las
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RespostaIdempotente r WHERE r.criadoEm < :limite")
+    int deleteCriadasAntes(@Param("limite") LocalDateTime limite);
+}
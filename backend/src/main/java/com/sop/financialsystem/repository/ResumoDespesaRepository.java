@@ -0,0 +1,9 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.entity.ResumoDespesa;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumoDespesaRepository extends JpaRepository<ResumoDespesa, Long>, ResumoDespesaRepositoryCustom {
+}
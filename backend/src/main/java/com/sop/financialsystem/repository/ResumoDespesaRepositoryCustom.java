@@ -0,0 +1,15 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.DespesaFiltro;
+
+import java.util.List;
+
+public interface ResumoDespesaRepositoryCustom {
+    
+    // Paginação por cursor (keyset): retorna até "limite" despesas com id maior que "after"
+    List<DespesaDTO> findPagina(DespesaFiltro filtro, Long after, int limite);
+    
+    // Linhas (id, último evento aplicado) da mesma página, para a ETag da listagem
+    List<Object[]> findVersoesPagina(DespesaFiltro filtro, Long after, int limite);
+}
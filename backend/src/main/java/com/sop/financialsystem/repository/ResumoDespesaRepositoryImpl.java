@@ -0,0 +1,71 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.DespesaFiltro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResumoDespesaRepositoryImpl implements ResumoDespesaRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<DespesaDTO> findPagina(DespesaFiltro filtro, Long after, int limite) {
+        return consultarPagina(
+            "SELECT new com.sop.financialsystem.dto.DespesaDTO(d.despesaId, d.numeroProtocolo, d.tipoDespesa, " +
+            "d.dataProtocolo, d.dataVencimento, d.credor, d.descricao, d.valor, " +
+            "d.totalEmpenhado, d.totalPago, d.status, " +
+            "d.quantidadeEmpenhos, d.quantidadePagamentos, d.dataUltimoPagamento) " +
+            "FROM ResumoDespesa d", DespesaDTO.class, filtro, after, limite);
+    }
+    
+    // Cada linha da projeção muda de ultimoEvento a cada evento aplicado
+    @Override
+    public List<Object[]> findVersoesPagina(DespesaFiltro filtro, Long after, int limite) {
+        return consultarPagina("SELECT d.despesaId, d.ultimoEvento FROM ResumoDespesa d", Object[].class,
+            filtro, after, limite);
+    }
+    
+    private <T> List<T> consultarPagina(String select, Class<T> tipo, DespesaFiltro filtro, Long after, int limite) {
+        StringBuilder jpql = new StringBuilder(select + " WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        
+        // Predicado de busca (seek) pelo id em vez de OFFSET: o custo não cresce com a página
+        if (after != null) {
+            jpql.append(" AND d.despesaId > :after");
+            params.put("after", after);
+        }
+        if (filtro.getCredor() != null && !filtro.getCredor().isBlank()) {
+            // Prefixo literal: % e _ digitados não viram curingas (nem anulam o uso do índice)
+            jpql.append(" AND d.credor LIKE :credor ESCAPE '\\'");
+            params.put("credor", filtro.getCredor().trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        if (filtro.getTipoDespesa() != null && !filtro.getTipoDespesa().isBlank()) {
+            jpql.append(" AND d.tipoDespesa = :tipoDespesa");
+            params.put("tipoDespesa", filtro.getTipoDespesa());
+        }
+        if (filtro.getVencimentoDe() != null) {
+            jpql.append(" AND d.dataVencimento >= :vencimentoDe");
+            params.put("vencimentoDe", filtro.getVencimentoDe().atStartOfDay());
+        }
+        if (filtro.getVencimentoAte() != null) {
+            jpql.append(" AND d.dataVencimento < :vencimentoAte");
+            params.put("vencimentoAte", filtro.getVencimentoAte().plusDays(1).atStartOfDay());
+        }
+        if (filtro.getStatus() != null && !filtro.getStatus().isBlank()) {
+            jpql.append(" AND d.status = :status");
+            params.put("status", filtro.getStatus());
+        }
+        jpql.append(" ORDER BY d.despesaId");
+        
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), tipo);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+}
@@ -0,0 +1,22 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.TotalAgrupadoDTO;
+import com.sop.financialsystem.entity.SaldoVencimento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface SaldoVencimentoRepository extends JpaRepository<SaldoVencimento, LocalDate> {
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.sop.financialsystem.dto.TotalAgrupadoDTO('Vencidas', COALESCE(SUM(s.quantidade), 0L), SUM(s.saldo)) " +
+           "FROM SaldoVencimento s WHERE s.dia < :hoje")
+    TotalAgrupadoDTO totalizarVencidas(@Param("hoje") LocalDate hoje);
+}
@@ -0,0 +1,31 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.TotalAgrupadoDTO;
+import com.sop.financialsystem.entity.TotalDespesaAgrupado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TotalDespesaAgrupadoRepository extends JpaRepository<TotalDespesaAgrupado, String> {
+    
+    String PROJECAO_DTO = "SELECT new com.sop.financialsystem.dto.TotalAgrupadoDTO(t.chave, t.quantidade, t.total) " +
+                          "FROM TotalDespesaAgrupado t WHERE t.dimensao = :dimensao";
+    
+    // Resultados no cache de consultas: a view só muda no REFRESH, que invalida apenas a sua query space
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(PROJECAO_DTO + " ORDER BY t.chave")
+    List<TotalAgrupadoDTO> findByDimensao(@Param("dimensao") String dimensao);
+    
+    // Maiores totais primeiro: percorre o índice (dimensao, total DESC, chave) até o limite da página
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(PROJECAO_DTO + " ORDER BY t.total DESC, t.chave")
+    List<TotalAgrupadoDTO> findMaioresByDimensao(@Param("dimensao") String dimensao, Pageable pageable);
+}
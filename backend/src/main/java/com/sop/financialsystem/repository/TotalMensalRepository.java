@@ -0,0 +1,23 @@
+package com.sop.financialsystem.repository;
+
+import com.sop.financialsystem.dto.TotalMensalDTO;
+import com.sop.financialsystem.entity.TotalMensal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TotalMensalRepository extends JpaRepository<TotalMensal, Integer> {
+    
+    // Intervalo de meses pela chave ano * 100 + mês
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.sop.financialsystem.dto.TotalMensalDTO(m.ano, m.mes, m.empenhado, m.pago) " +
+           "FROM TotalMensal m WHERE m.id BETWEEN :inicio AND :fim ORDER BY m.id")
+    List<TotalMensalDTO> findIntervalo(@Param("inicio") int inicio, @Param("fim") int fim);
+}
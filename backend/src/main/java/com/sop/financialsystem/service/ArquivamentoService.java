@@ -0,0 +1,201 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+import com.sop.financialsystem.repository.DespesaArquivadaRepository;
+import com.sop.financialsystem.repository.DespesaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Move as despesas pagas há mais de app.arquivamento.idade, com seus empenhos e pagamentos, para as
+// tabelas de arquivo particionadas por ano (db/arquivo.sql). As consultas e os relatórios do dia a dia
+// passam a ler só o conjunto ativo; o arquivo é lido apenas pelos métodos consultar*
+@Service
+public class ArquivamentoService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoService.class);
+    
+    private static final List<String> TABELAS_ARQUIVO = List.of("despesa_arquivo", "empenho_arquivo", "pagamento_arquivo");
+    
+    // Cada DELETE ... RETURNING alimenta o INSERT no arquivo no mesmo comando; a ordem (pagamentos,
+    // empenhos, despesas) respeita as chaves estrangeiras do conjunto ativo
+    private static final String MOVER_PAGAMENTOS =
+        "WITH movidos AS (DELETE FROM pagamentos p USING empenho e, despesa d " +
+        "WHERE p.empenho_id = e.id AND e.despesa_id = d.id AND d.id IN (:ids) " +
+        "RETURNING p.id, p.numero_pagamento, p.data_pagamento, p.valor, p.observacao, p.empenho_id, " +
+        "e.despesa_id, p.created_at, p.updated_at, CAST(EXTRACT(YEAR FROM d.data_protocolo) AS INTEGER) AS ano) " +
+        "INSERT INTO pagamento_arquivo (id, numero_pagamento, data_pagamento, valor, observacao, empenho_id, " +
+        "despesa_id, created_at, updated_at, ano) SELECT * FROM movidos";
+    
+    private static final String MOVER_EMPENHOS =
+        "WITH movidos AS (DELETE FROM empenho e USING despesa d " +
+        "WHERE e.despesa_id = d.id AND d.id IN (:ids) " +
+        "RETURNING e.id, e.numero_empenho, e.data_empenho, e.valor, e.observacao, e.total_pago, e.despesa_id, " +
+        "e.created_at, e.updated_at, CAST(EXTRACT(YEAR FROM d.data_protocolo) AS INTEGER) AS ano) " +
+        "INSERT INTO empenho_arquivo (id, numero_empenho, data_empenho, valor, observacao, total_pago, despesa_id, " +
+        "created_at, updated_at, ano) SELECT * FROM movidos";
+    
+    private static final String MOVER_DESPESAS =
+        "WITH movidos AS (DELETE FROM despesa d WHERE d.id IN (:ids) " +
+        "RETURNING d.id, d.numero_protocolo, d.tipo_despesa, d.data_protocolo, d.data_vencimento, d.credor, " +
+        "d.descricao, d.valor, d.total_empenhado, d.total_pago, d.status, d.created_at, d.updated_at, " +
+        "CAST(EXTRACT(YEAR FROM d.data_protocolo) AS INTEGER) AS ano) " +
+        "INSERT INTO despesa_arquivo (id, numero_protocolo, tipo_despesa, data_protocolo, data_vencimento, credor, " +
+        "descricao, valor, total_empenhado, total_pago, status, created_at, updated_at, ano) SELECT * FROM movidos";
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private DespesaArquivadaRepository despesaArquivadaRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DespesaCacheListener despesaCacheListener;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.arquivamento.idade:P365D}")
+    private Duration idade;
+    
+    @Value("${app.arquivamento.lote:500}")
+    private int lote;
+    
+    @Scheduled(cron = "${app.arquivamento.cron:0 30 2 * * *}")
+    public void arquivarAgendado() {
+        try {
+            arquivar();
+        } catch (RuntimeException e) {
+            // O lote que falhou é desfeito por inteiro; os anteriores já estão no arquivo
+            log.error("Falha no arquivamento de despesas", e);
+        }
+    }
+    
+    // Percorre as candidatas em lotes, uma transação por lote, para não segurar bloqueios
+    // sobre muitas despesas de uma vez. Retorna quantas despesas foram arquivadas
+    public long arquivar() {
+        LocalDateTime limite = LocalDateTime.now().minus(idade);
+        long inicio = System.nanoTime();
+        long arquivadas = 0;
+        long after = 0;
+        
+        while (true) {
+            List<Long> candidatas = despesaRepository.findIdsParaArquivamento(
+                StatusDespesa.PAGA, limite, after, PageRequest.of(0, lote));
+            if (candidatas.isEmpty()) {
+                break;
+            }
+            after = candidatas.get(candidatas.size() - 1);
+            
+            List<Long> movidas = transactionTemplate.execute(status -> arquivarLote(candidatas, limite));
+            movidas.forEach(despesaCacheListener::descartar);
+            arquivadas += movidas.size();
+        }
+        
+        if (arquivadas > 0) {
+            log.info("{} despesa(s) arquivada(s) em {} ms", arquivadas, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return arquivadas;
+    }
+    
+    private List<Long> arquivarLote(List<Long> candidatas, LocalDateTime limite) {
+        List<Long> ids = new ArrayList<>();
+        Set<Integer> anos = new TreeSet<>();
+        for (Despesa despesa : despesaRepository.findAllByIdForUpdate(candidatas)) {
+            // Revalida sob bloqueio: a despesa pode ter recebido alterações depois da seleção
+            if (StatusDespesa.PAGA.equals(despesa.getStatus()) && ultimaAlteracao(despesa).isBefore(limite)) {
+                eventoService.despesaArquivada(despesa);
+                ids.add(despesa.getId());
+                anos.add(despesa.getDataProtocolo().getYear());
+            }
+        }
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        
+        // Grava os eventos e solta as entidades antes dos comandos nativos que removem as linhas
+        entityManager.flush();
+        entityManager.clear();
+        
+        anos.forEach(this::criarParticoes);
+        mover(MOVER_PAGAMENTOS, ids);
+        mover(MOVER_EMPENHOS, ids);
+        mover(MOVER_DESPESAS, ids);
+        return ids;
+    }
+    
+    // Mesmo critério de findIdsParaArquivamento: sem updated_at (linhas antigas), a data do protocolo
+    private static LocalDateTime ultimaAlteracao(Despesa despesa) {
+        return despesa.getAtualizadoEm() != null ? despesa.getAtualizadoEm() : despesa.getDataProtocolo();
+    }
+    
+    // Partição do ano em cada tabela de arquivo, criada na primeira vez que o ano aparece
+    private void criarParticoes(int ano) {
+        for (String tabela : TABELAS_ARQUIVO) {
+            entityManager.createNativeQuery("CREATE TABLE IF NOT EXISTS " + tabela + "_" + ano +
+                    " PARTITION OF " + tabela + " FOR VALUES IN (" + ano + ")")
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(tabela)
+                    .executeUpdate();
+        }
+    }
+    
+    // As entidades sincronizadas têm suas regiões do cache de segundo nível invalidadas no commit
+    private void mover(String sql, List<Long> ids) {
+        entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Despesa.class)
+                .addSynchronizedEntityClass(Empenho.class)
+                .addSynchronizedEntityClass(Pagamento.class)
+                .addSynchronizedQuerySpace("despesa_arquivo")
+                .executeUpdate();
+    }
+    
+    public PaginaDTO<DespesaDTO> consultarDespesas(int ano, Long after, int limit) {
+        int limite = Paginacao.normalizarLimite(limit);
+        List<DespesaDTO> itens = despesaArquivadaRepository.findPagina(
+            ano, after != null ? after : 0L, PageRequest.of(0, limite + 1));
+        return Paginacao.montar(itens, limite, DespesaDTO::getId);
+    }
+    
+    public Optional<DespesaDTO> consultarDespesa(Long id) {
+        return despesaArquivadaRepository.findDTOById(id);
+    }
+    
+    public List<EmpenhoDTO> consultarEmpenhos(Long despesaId) {
+        return despesaArquivadaRepository.findEmpenhosByDespesaId(despesaId);
+    }
+    
+    public List<PagamentoDTO> consultarPagamentos(Long despesaId) {
+        return despesaArquivadaRepository.findPagamentosByDespesaId(despesaId);
+    }
+}
@@ -0,0 +1,49 @@
+package com.sop.financialsystem.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Atualiza as views materializadas dos relatórios (db/relatorios.sql). CONCURRENTLY mantém as views
+// legíveis durante a atualização; cada uma roda na sua transação para não segurar as demais
+@Service
+public class AtualizacaoRelatoriosService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AtualizacaoRelatoriosService.class);
+    
+    private static final List<String> VIEWS = List.of("mv_totais_despesa", "mv_saldo_vencimento", "mv_totais_mensais");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Scheduled(cron = "${app.relatorios.cron:0 */5 * * * *}")
+    public void atualizar() {
+        for (String view : VIEWS) {
+            long inicio = System.nanoTime();
+            try {
+                // A query space restringe a invalidação do cache de segundo nível às consultas da própria view;
+                // sem ela, o Hibernate descarta todas as regiões a cada SQL nativo de escrita
+                transactionTemplate.executeWithoutResult(status -> entityManager
+                        .createNativeQuery("REFRESH MATERIALIZED VIEW CONCURRENTLY " + view)
+                        .unwrap(NativeQuery.class)
+                        .addSynchronizedQuerySpace(view)
+                        .executeUpdate());
+                log.debug("View {} atualizada em {} ms", view, (System.nanoTime() - inicio) / 1_000_000);
+            } catch (RuntimeException e) {
+                // Mantém o conteúdo anterior da view; a próxima execução tenta de novo
+                log.error("Falha ao atualizar a view {}", view, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.ResultadoBuscaDTO;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Busca textual sobre credor e descrição das despesas e observação de empenhos e pagamentos, com os
+// vetores e índices GIN de db/busca.sql. Cada palavra é buscada como prefixo ("constr" encontra
+// "Construtora"); trechos do nome do credor com 3+ caracteres também casam pelo índice de trigramas
+@Service
+public class BuscaService {
+    
+    // Resultados ordenados por relevância não têm chave de cursor estável: a paginação é por posição,
+    // limitada às primeiras posições para que cada página continue barata
+    static final int MAXIMO_RESULTADOS = 1000;
+    private static final int MAXIMO_TERMOS = 8;
+    
+    private static final String DESPESAS =
+        "(SELECT 'DESPESA' AS tipo, d.id AS id, d.id AS despesa_id, d.numero_protocolo AS numero, " +
+        "left(d.credor || ': ' || d.descricao, 200) AS texto, " +
+        "ts_rank_cd(d.busca, q.consulta) + similarity(d.credor, :texto) AS relevancia " +
+        "FROM despesa d, q WHERE d.busca @@ q.consulta%s ORDER BY relevancia DESC, d.id LIMIT :candidatos)";
+    
+    private static final String EMPENHOS =
+        "(SELECT 'EMPENHO' AS tipo, e.id AS id, e.despesa_id AS despesa_id, e.numero_empenho AS numero, " +
+        "left(e.observacao, 200) AS texto, ts_rank_cd(e.busca, q.consulta) AS relevancia " +
+        "FROM empenho e, q WHERE e.busca @@ q.consulta ORDER BY relevancia DESC, e.id LIMIT :candidatos)";
+    
+    private static final String PAGAMENTOS =
+        "(SELECT 'PAGAMENTO' AS tipo, p.id AS id, e.despesa_id AS despesa_id, p.numero_pagamento AS numero, " +
+        "left(p.observacao, 200) AS texto, ts_rank_cd(p.busca, q.consulta) AS relevancia " +
+        "FROM q, pagamentos p JOIN empenho e ON e.id = p.empenho_id " +
+        "WHERE p.busca @@ q.consulta ORDER BY relevancia DESC, p.id LIMIT :candidatos)";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // "after" é a posição do próximo resultado, devolvida em X-Next-Cursor pela página anterior
+    @Transactional(readOnly = true)
+    public PaginaDTO<ResultadoBuscaDTO> buscar(String texto, List<String> tipos, Long after, int limit) {
+        List<String> termos = termos(texto);
+        if (termos.isEmpty()) {
+            throw new RegraNegocioException(CodigoErro.DADOS_INVALIDOS, "Informe ao menos um termo de busca com duas letras ou números");
+        }
+        Set<String> tiposBusca = tipos(tipos);
+        int limite = Math.min(Paginacao.normalizarLimite(limit), MAXIMO_RESULTADOS);
+        int inicio = after == null ? 0 : (int) Math.max(0, Math.min(after, MAXIMO_RESULTADOS - limite));
+        
+        // Trecho do credor só a partir de 3 caracteres: abaixo disso o índice de trigramas não é usado
+        String trecho = texto.trim();
+        boolean porTrecho = tiposBusca.contains(ResultadoBuscaDTO.DESPESA) && trecho.length() >= 3;
+        
+        List<String> partes = new ArrayList<>();
+        if (tiposBusca.contains(ResultadoBuscaDTO.DESPESA)) {
+            partes.add(String.format(DESPESAS, porTrecho ? " OR d.credor ILIKE :padrao" : ""));
+        }
+        if (tiposBusca.contains(ResultadoBuscaDTO.EMPENHO)) {
+            partes.add(EMPENHOS);
+        }
+        if (tiposBusca.contains(ResultadoBuscaDTO.PAGAMENTO)) {
+            partes.add(PAGAMENTOS);
+        }
+        
+        // Cada tipo contribui no máximo com as posições até o fim da página pedida
+        Query query = entityManager.createNativeQuery(
+            "WITH q AS (SELECT to_tsquery('portuguese', :consulta) AS consulta) " +
+            "SELECT r.tipo, r.id, r.despesa_id, r.numero, r.texto, r.relevancia FROM (" +
+            String.join(" UNION ALL ", partes) +
+            ") r ORDER BY r.relevancia DESC, r.tipo, r.id OFFSET :inicio LIMIT :limite");
+        query.setParameter("consulta", termos.stream().map(t -> t + ":*").collect(Collectors.joining(" & ")));
+        query.setParameter("candidatos", inicio + limite + 1);
+        query.setParameter("inicio", inicio);
+        query.setParameter("limite", limite + 1);
+        if (tiposBusca.contains(ResultadoBuscaDTO.DESPESA)) {
+            query.setParameter("texto", trecho);
+        }
+        if (porTrecho) {
+            query.setParameter("padrao", "%" + trecho.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        
+        List<ResultadoBuscaDTO> itens = new ArrayList<>();
+        for (Object linha : query.getResultList()) {
+            Object[] colunas = (Object[]) linha;
+            itens.add(new ResultadoBuscaDTO((String) colunas[0], ((Number) colunas[1]).longValue(),
+                ((Number) colunas[2]).longValue(), (String) colunas[3], (String) colunas[4],
+                ((Number) colunas[5]).doubleValue()));
+        }
+        
+        if (itens.size() <= limite || inicio + limite >= MAXIMO_RESULTADOS) {
+            return new PaginaDTO<>(itens.subList(0, Math.min(itens.size(), limite)), null);
+        }
+        return new PaginaDTO<>(itens.subList(0, limite), (long) (inicio + limite));
+    }
+    
+    // Só letras e números entram na tsquery: o texto do usuário nunca é interpretado como operador
+    private List<String> termos(String texto) {
+        if (texto == null) {
+            return List.of();
+        }
+        return Arrays.stream(texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+            .filter(t -> t.length() >= 2)
+            .distinct()
+            .limit(MAXIMO_TERMOS)
+            .collect(Collectors.toList());
+    }
+    
+    private Set<String> tipos(List<String> tipos) {
+        if (tipos == null || tipos.isEmpty()) {
+            return Set.of(ResultadoBuscaDTO.DESPESA, ResultadoBuscaDTO.EMPENHO, ResultadoBuscaDTO.PAGAMENTO);
+        }
+        Set<String> resultado = new LinkedHashSet<>();
+        for (String tipo : tipos) {
+            String normalizado = tipo.trim().toUpperCase(Locale.ROOT);
+            if (!normalizado.equals(ResultadoBuscaDTO.DESPESA) && !normalizado.equals(ResultadoBuscaDTO.EMPENHO)
+                    && !normalizado.equals(ResultadoBuscaDTO.PAGAMENTO)) {
+                throw new RegraNegocioException(CodigoErro.DADOS_INVALIDOS, "Tipo de busca inválido: " + tipo);
+            }
+            resultado.add(normalizado);
+        }
+        return resultado;
+    }
+}
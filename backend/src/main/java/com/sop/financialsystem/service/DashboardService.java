@@ -0,0 +1,71 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.ResumoDashboardDTO;
+import com.sop.financialsystem.dto.TotalMensalDTO;
+import com.sop.financialsystem.entity.TotalDespesaAgrupado;
+import com.sop.financialsystem.repository.SaldoVencimentoRepository;
+import com.sop.financialsystem.repository.TotalDespesaAgrupadoRepository;
+import com.sop.financialsystem.repository.TotalMensalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class DashboardService {
+    
+    private static final int MAXIMO_CREDORES = 100;
+    private static final int MAXIMO_MESES = 60;
+    
+    @Autowired
+    private TotalDespesaAgrupadoRepository totalDespesaAgrupadoRepository;
+    
+    @Autowired
+    private SaldoVencimentoRepository saldoVencimentoRepository;
+    
+    @Autowired
+    private TotalMensalRepository totalMensalRepository;
+    
+    // Resumo da carteira lido das views materializadas (db/relatorios.sql): cada bloco é uma leitura
+    // por índice de poucas linhas pré-agregadas. Os valores refletem a última atualização das views
+    @Transactional(readOnly = true)
+    public ResumoDashboardDTO resumo(int credores, int meses) {
+        int limiteCredores = Math.max(1, Math.min(credores, MAXIMO_CREDORES));
+        int limiteMeses = Math.max(1, Math.min(meses, MAXIMO_MESES));
+        LocalDate hoje = LocalDate.now();
+        YearMonth mesAtual = YearMonth.from(hoje);
+        
+        return new ResumoDashboardDTO(
+            totalDespesaAgrupadoRepository.findByDimensao(TotalDespesaAgrupado.STATUS),
+            totalDespesaAgrupadoRepository.findByDimensao(TotalDespesaAgrupado.TIPO),
+            totalDespesaAgrupadoRepository.findMaioresByDimensao(TotalDespesaAgrupado.CREDOR, PageRequest.of(0, limiteCredores)),
+            totalizarPorMes(mesAtual.minusMonths(limiteMeses - 1L), mesAtual),
+            saldoVencimentoRepository.totalizarVencidas(hoje)
+        );
+    }
+    
+    // Série contínua de meses: os que não têm linha na view (sem movimento) aparecem zerados
+    private List<TotalMensalDTO> totalizarPorMes(YearMonth inicio, YearMonth fim) {
+        Map<YearMonth, TotalMensalDTO> porMes = new TreeMap<>();
+        for (YearMonth mes = inicio; !mes.isAfter(fim); mes = mes.plusMonths(1)) {
+            porMes.put(mes, new TotalMensalDTO(mes.getYear(), mes.getMonthValue(), BigDecimal.ZERO, BigDecimal.ZERO));
+        }
+        
+        for (TotalMensalDTO total : totalMensalRepository.findIntervalo(chave(inicio), chave(fim))) {
+            porMes.put(YearMonth.of(total.getAno(), total.getMes()), total);
+        }
+        return new ArrayList<>(porMes.values());
+    }
+    
+    private static int chave(YearMonth mes) {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+}
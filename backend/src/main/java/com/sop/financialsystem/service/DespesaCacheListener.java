@@ -0,0 +1,87 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.entity.Despesa;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Invalida a despesa no cache sempre que sua linha é alterada: mudanças de valor e também dos
+// totais materializados, que são atualizados em toda escrita de empenho ou pagamento da despesa
+@Component
+public class DespesaCacheListener {
+    
+    public static final String CACHE = "despesas";
+    
+    private static final int FAIXAS = 1024;
+    
+    // Geração de cada faixa de ids, incrementada a cada invalidação. Estática porque o Hibernate pode
+    // instanciar o listener de entidade à parte do bean usado pelos serviços
+    private static final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @PostUpdate
+    @PostRemove
+    public void invalidar(Despesa despesa) {
+        Long id = despesa.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Só após o commit: antes dele uma leitura concorrente ainda veria a linha antiga
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(id);
+                }
+            });
+        } else {
+            descartar(id);
+        }
+    }
+    
+    // Leitura pelo cache. Uma carga que começou antes do commit de uma escrita pode trazer a linha
+    // antiga e chegar ao cache depois da invalidação; por isso guarda primeiro e confere a geração
+    // depois: se mudou durante a carga, o valor é descartado (no pior caso, só perde o cache)
+    public Optional<DespesaDTO> buscar(Long id, Supplier<Optional<DespesaDTO>> carregar) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return carregar.get();
+        }
+        DespesaDTO guardada = cache.get(id, DespesaDTO.class);
+        if (guardada != null) {
+            return Optional.of(guardada);
+        }
+        
+        long geracao = geracoes.get(faixa(id));
+        Optional<DespesaDTO> despesa = carregar.get();
+        despesa.ifPresent(dto -> {
+            cache.put(id, dto);
+            if (geracoes.get(faixa(id)) != geracao) {
+                cache.evict(id);
+            }
+        });
+        return despesa;
+    }
+    
+    // Para alterações feitas fora das entidades (ex.: arquivamento por SQL nativo), após o commit
+    public void descartar(Long id) {
+        geracoes.incrementAndGet(faixa(id));
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+    
+    private static int faixa(Long id) {
+        return (int) Math.floorMod(id, (long) FAIXAS);
+    }
+}
@@ -1,77 +1,105 @@
 package com.sop.financialsystem.service;
 
 import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.DespesaFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
 import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
 import com.sop.financialsystem.repository.DespesaRepository;
-import com.sop.financialsystem.repository.EmpenhoRepository;
-import com.sop.financialsystem.repository.PagamentoRepository;
+import com.sop.financialsystem.repository.ResumoDespesaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class DespesaService {
     
+    private static final Logger log = LoggerFactory.getLogger(DespesaService.class);
+    
     @Autowired
     private DespesaRepository despesaRepository;
     
     @Autowired
-    private EmpenhoRepository empenhoRepository;
+    private ResumoDespesaRepository resumoDespesaRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private FiltroNumerosService filtroNumerosService;
+    
+    @Autowired
+    private VencimentoDespesasService vencimentoDespesasService;
     
     @Autowired
-    private PagamentoRepository pagamentoRepository;
+    private DespesaCacheListener despesaCacheListener;
     
-    public List<DespesaDTO> findAll() {
-        return despesaRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Listagem servida pelo modelo de leitura (projeção assíncrona do log de eventos)
+    public PaginaDTO<DespesaDTO> findPage(DespesaFiltro filtro, Long after, int limit) {
+        int limite = Paginacao.normalizarLimite(limit);
+        return Paginacao.montar(resumoDespesaRepository.findPagina(filtro, after, limite + 1), limite, DespesaDTO::getId);
     }
     
+    // ETag da página calculada só com ids e versões das linhas, sem montar os DTOs
+    public VersaoDTO versaoPagina(DespesaFiltro filtro, Long after, int limit) {
+        return Versoes.calcular(resumoDespesaRepository.findVersoesPagina(filtro, after, Paginacao.normalizarLimite(limit) + 1));
+    }
+    
+    public Optional<VersaoDTO> versao(Long id) {
+        List<Object[]> linhas = despesaRepository.findVersaoById(id);
+        return linhas.isEmpty() ? Optional.empty() : Optional.of(Versoes.calcular(linhas));
+    }
+    
+    // Leitura com cache; a invalidação é feita por DespesaCacheListener a cada alteração da despesa
     public Optional<DespesaDTO> findById(Long id) {
-        return despesaRepository.findById(id)
-                .map(this::convertToDTO);
+        return despesaCacheListener.buscar(id, () -> despesaRepository.findByIdComTotais(id));
     }
     
+    @Transactional
     public DespesaDTO save(DespesaDTO despesaDTO) {
-        if (despesaRepository.existsByNumeroProtocolo(despesaDTO.getNumeroProtocolo())) {
-            throw new RuntimeException("Número de protocolo já existe: " + despesaDTO.getNumeroProtocolo());
+        // O filtro responde sem consulta quando o protocolo certamente é novo
+        if (filtroNumerosService.protocoloPodeExistir(despesaDTO.getNumeroProtocolo()) &&
+            despesaRepository.existsByNumeroProtocolo(despesaDTO.getNumeroProtocolo())) {
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de protocolo já existe: " + despesaDTO.getNumeroProtocolo());
         }
         
         Despesa despesa = convertToEntity(despesaDTO);
+        StatusDespesa.atualizar(despesa);
         despesa = despesaRepository.save(despesa);
+        eventoService.despesaCriada(despesa);
+        vencimentoDespesasService.verificarEscrita(despesa);
         return convertToDTO(despesa);
     }
     
+    @Transactional
     public DespesaDTO update(Long id, DespesaDTO despesaDTO) {
-        System.out.println("=== INÍCIO UPDATE DESPESA ===");
-        System.out.println("ID da despesa: " + id);
-        System.out.println("Novo valor: " + despesaDTO.getValor());
-        
-        Optional<Despesa> existingDespesa = despesaRepository.findById(id);
+        // Bloqueia a despesa para que empenhos concorrentes não ultrapassem o novo valor
+        Optional<Despesa> existingDespesa = despesaRepository.findByIdForUpdate(id);
         if (existingDespesa.isEmpty()) {
-            throw new RuntimeException("Despesa não encontrada com ID: " + id);
+            throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Despesa não encontrada com ID: " + id);
         }
         
         Despesa despesa = existingDespesa.get();
-        System.out.println("Valor atual da despesa: " + despesa.getValor());
         
         // Verifica se o novo número de protocolo já existe (se for diferente do atual)
         if (!despesa.getNumeroProtocolo().equals(despesaDTO.getNumeroProtocolo()) &&
+            filtroNumerosService.protocoloPodeExistir(despesaDTO.getNumeroProtocolo()) &&
             despesaRepository.existsByNumeroProtocolo(despesaDTO.getNumeroProtocolo())) {
-            throw new RuntimeException("Número de protocolo já existe: " + despesaDTO.getNumeroProtocolo());
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de protocolo já existe: " + despesaDTO.getNumeroProtocolo());
         }
         
         // NOVA VALIDAÇÃO: Verificar se o novo valor não é menor que a soma dos empenhos
-        BigDecimal somaEmpenhos = empenhoRepository.sumValorByDespesaId(id);
-        if (somaEmpenhos == null) {
-            somaEmpenhos = BigDecimal.ZERO;
-        }
-        
-        System.out.println("Soma atual dos empenhos: " + somaEmpenhos);
+        BigDecimal somaEmpenhos = despesa.getTotalEmpenhado();
+        log.debug("Atualizando despesa {}: valor {} -> {}, soma dos empenhos {}",
+                id, despesa.getValor(), despesaDTO.getValor(), somaEmpenhos);
         
         // Se há empenhos e o novo valor é menor que a soma dos empenhos
         if (somaEmpenhos.compareTo(BigDecimal.ZERO) > 0 && 
@@ -81,13 +109,10 @@ public class DespesaService {
                 "O novo valor da despesa (R$ %,.2f) não pode ser menor que a soma dos empenhos já realizados (R$ %,.2f)",
                 despesaDTO.getValor(), somaEmpenhos
             );
-            
-            System.out.println("ERRO: " + erro);
-            throw new RuntimeException(erro);
+            throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, erro);
         }
         
-        System.out.println("Validação OK - Atualizando despesa");
-        
+        boolean vencimentoAlterado = !despesa.getDataVencimento().equals(despesaDTO.getDataVencimento());
         despesa.setNumeroProtocolo(despesaDTO.getNumeroProtocolo());
         despesa.setTipoDespesa(despesaDTO.getTipoDespesa());
         despesa.setDataProtocolo(despesaDTO.getDataProtocolo());
@@ -95,33 +120,43 @@ public class DespesaService {
         despesa.setCredor(despesaDTO.getCredor());
         despesa.setDescricao(despesaDTO.getDescricao());
         despesa.setValor(despesaDTO.getValor());
+        StatusDespesa.atualizar(despesa);
         
         despesa = despesaRepository.save(despesa);
-        System.out.println("Despesa atualizada com sucesso");
-        System.out.println("=== FIM UPDATE DESPESA ===");
-        
+        eventoService.despesaAtualizada(despesa);
+        if (vencimentoAlterado) {
+            vencimentoDespesasService.verificarEscrita(despesa);
+        }
         return convertToDTO(despesa);
     }
     
+    @Transactional
     public void deleteById(Long id) {
+        Optional<Despesa> despesa = despesaRepository.findByIdForUpdate(id);
+        if (despesa.isEmpty()) {
+            return;
+        }
         if (despesaRepository.hasEmpenhos(id)) {
-            throw new RuntimeException("Não é possível excluir despesa que possui empenhos associados");
+            throw new RegraNegocioException(CodigoErro.EXCLUSAO_BLOQUEADA, "Não é possível excluir despesa que possui empenhos associados");
         }
-        despesaRepository.deleteById(id);
+        eventoService.despesaExcluida(despesa.get());
+        despesaRepository.delete(despesa.get());
     }
     
     private DespesaDTO convertToDTO(Despesa despesa) {
-        DespesaDTO dto = new DespesaDTO();
-        dto.setId(despesa.getId());
-        dto.setNumeroProtocolo(despesa.getNumeroProtocolo());
-        dto.setTipoDespesa(despesa.getTipoDespesa());
-        dto.setDataProtocolo(despesa.getDataProtocolo());
-        dto.setDataVencimento(despesa.getDataVencimento());
-        dto.setCredor(despesa.getCredor());
-        dto.setDescricao(despesa.getDescricao());
-        dto.setValor(despesa.getValor());
-        dto.setStatus(calculateStatus(despesa.getId(), despesa.getValor()));
-        return dto;
+        return new DespesaDTO(
+            despesa.getId(),
+            despesa.getNumeroProtocolo(),
+            despesa.getTipoDespesa(),
+            despesa.getDataProtocolo(),
+            despesa.getDataVencimento(),
+            despesa.getCredor(),
+            despesa.getDescricao(),
+            despesa.getValor(),
+            despesa.getTotalEmpenhado(),
+            despesa.getTotalPago(),
+            despesa.getStatus()
+        );
     }
     
     private Despesa convertToEntity(DespesaDTO dto) {
@@ -136,24 +171,4 @@ public class DespesaService {
         despesa.setValor(dto.getValor());
         return despesa;
     }
-    
-    private String calculateStatus(Long despesaId, BigDecimal valorDespesa) {
-        BigDecimal valorEmpenhos = empenhoRepository.sumValorByDespesaId(despesaId);
-        BigDecimal valorPagamentos = pagamentoRepository.sumValorByDespesaId(despesaId);
-        
-        if (valorEmpenhos == null) valorEmpenhos = BigDecimal.ZERO;
-        if (valorPagamentos == null) valorPagamentos = BigDecimal.ZERO;
-        
-        if (valorEmpenhos.compareTo(BigDecimal.ZERO) == 0) {
-            return "Aguardando Empenho";
-        } else if (valorEmpenhos.compareTo(valorDespesa) < 0) {
-            return "Parcialmente Empenhada";
-        } else if (valorPagamentos.compareTo(BigDecimal.ZERO) == 0) {
-            return "Aguardando Pagamento";
-        } else if (valorPagamentos.compareTo(valorDespesa) < 0) {
-            return "Parcialmente Paga";
-        } else {
-            return "Paga";
-        }
-    }
 }
\ No newline at end of file
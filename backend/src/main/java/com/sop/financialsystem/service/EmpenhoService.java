@@ -1,22 +1,31 @@
 package com.sop.financialsystem.service;
 
 import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.EmpenhoFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
 import com.sop.financialsystem.entity.Despesa;
 import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import com.sop.financialsystem.repository.AtualizacaoEmpenho;
 import com.sop.financialsystem.repository.DespesaRepository;
 import com.sop.financialsystem.repository.EmpenhoRepository;
-import com.sop.financialsystem.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class EmpenhoService {
     
+    private static final Logger log = LoggerFactory.getLogger(EmpenhoService.class);
+    
     @Autowired
     private EmpenhoRepository empenhoRepository;
     
@@ -24,43 +33,52 @@ public class EmpenhoService {
     private DespesaRepository despesaRepository;
     
     @Autowired
-    private PagamentoRepository pagamentoRepository;
+    private EventoService eventoService;
+    
+    @Autowired
+    private FiltroNumerosService filtroNumerosService;
     
-    public List<EmpenhoDTO> findAll() {
-        return empenhoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public PaginaDTO<EmpenhoDTO> findPage(EmpenhoFiltro filtro, Long after, int limit) {
+        int limite = Paginacao.normalizarLimite(limit);
+        return Paginacao.montar(empenhoRepository.findPagina(filtro, after, limite + 1), limite, EmpenhoDTO::getId);
+    }
+    
+    // Versões das linhas da mesma página (empenho e despesa), lidas sem montar os DTOs
+    public VersaoDTO versaoPagina(EmpenhoFiltro filtro, Long after, int limit) {
+        return Versoes.calcular(empenhoRepository.findVersoesPagina(filtro, after, Paginacao.normalizarLimite(limit) + 1));
+    }
+    
+    public Optional<VersaoDTO> versao(Long id) {
+        List<Object[]> linhas = empenhoRepository.findVersaoById(id);
+        return linhas.isEmpty() ? Optional.empty() : Optional.of(Versoes.calcular(linhas));
     }
     
     public Optional<EmpenhoDTO> findById(Long id) {
-        return empenhoRepository.findById(id)
-                .map(this::convertToDTO);
+        return empenhoRepository.findDTOById(id);
     }
     
     public List<EmpenhoDTO> findByDespesaId(Long despesaId) {
-        return empenhoRepository.findByDespesaId(despesaId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return empenhoRepository.findDTOsByDespesaId(despesaId);
     }
     
+    @Transactional
     public EmpenhoDTO save(EmpenhoDTO empenhoDTO) {
-        if (empenhoRepository.existsByNumeroEmpenho(empenhoDTO.getNumeroEmpenho())) {
-            throw new RuntimeException("Número de empenho já existe: " + empenhoDTO.getNumeroEmpenho());
+        if (filtroNumerosService.empenhoPodeExistir(empenhoDTO.getNumeroEmpenho()) &&
+            empenhoRepository.existsByNumeroEmpenho(empenhoDTO.getNumeroEmpenho())) {
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de empenho já existe: " + empenhoDTO.getNumeroEmpenho());
         }
         
-        // Verificar se a despesa existe
-        Optional<Despesa> despesa = despesaRepository.findById(empenhoDTO.getDespesaId());
+        // Verificar se a despesa existe, bloqueando-a até o commit para que empenhos
+        // concorrentes não ultrapassem juntos o valor da despesa
+        Optional<Despesa> despesa = despesaRepository.findByIdForUpdate(empenhoDTO.getDespesaId());
         if (despesa.isEmpty()) {
-            throw new RuntimeException("Despesa não encontrada com ID: " + empenhoDTO.getDespesaId());
+            throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Despesa não encontrada com ID: " + empenhoDTO.getDespesaId());
         }
         
         // Verificar se a soma dos empenhos não ultrapassará o valor da despesa
-        BigDecimal valorEmpenhos = empenhoRepository.sumValorByDespesaId(empenhoDTO.getDespesaId());
-        if (valorEmpenhos == null) valorEmpenhos = BigDecimal.ZERO;
-        
-        BigDecimal novoTotal = valorEmpenhos.add(empenhoDTO.getValor());
+        BigDecimal novoTotal = despesa.get().getTotalEmpenhado().add(empenhoDTO.getValor());
         if (novoTotal.compareTo(despesa.get().getValor()) > 0) {
-            throw new RuntimeException(String.format(
+            throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, String.format(
                 "O valor total dos empenhos (R$ %.2f) não pode ultrapassar o valor da despesa (R$ %.2f)",
                 novoTotal.doubleValue(),
                 despesa.get().getValor().doubleValue()
@@ -70,39 +88,37 @@ public class EmpenhoService {
         Empenho empenho = convertToEntity(empenhoDTO);
         empenho.setDespesa(despesa.get());
         empenho = empenhoRepository.save(empenho);
+        
+        // Atualiza o total materializado da despesa na mesma transação
+        Totais.somarEmpenhado(despesa.get(), empenhoDTO.getValor());
+        eventoService.empenhoCriado(empenho);
         return convertToDTO(empenho);
     }
     
+    @Transactional
     public EmpenhoDTO update(Long id, EmpenhoDTO empenhoDTO) {
-        Optional<Empenho> existingEmpenho = empenhoRepository.findById(id);
-        if (existingEmpenho.isEmpty()) {
-            throw new RuntimeException("Empenho não encontrado com ID: " + id);
+        // Bloqueia a despesa antes de ler o empenho: os totais lidos ficam estáveis até o commit
+        despesaRepository.findAllByEmpenhoIdsForUpdate(List.of(id));
+        
+        // Uma consulta traz o empenho e a unicidade do número; o total pago do empenho e o total
+        // empenhado da despesa já estão materializados nas linhas lidas
+        Optional<AtualizacaoEmpenho> atualizacao = empenhoRepository.findParaAtualizacao(id, empenhoDTO.getNumeroEmpenho());
+        if (atualizacao.isEmpty()) {
+            throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Empenho não encontrado com ID: " + id);
         }
         
-        Empenho empenho = existingEmpenho.get();
-        
-        // Debug logs
-        System.out.println("=== DEBUG EMPENHO UPDATE ===");
-        System.out.println("Empenho ID sendo editado: " + id);
-        System.out.println("Valor atual do empenho: " + empenho.getValor());
-        System.out.println("Novo valor do empenho: " + empenhoDTO.getValor());
-        System.out.println("Despesa ID: " + empenho.getDespesa().getId());
-        System.out.println("Valor da despesa: " + empenho.getDespesa().getValor());
+        Empenho empenho = atualizacao.get().getEmpenho();
         
-        // Verifica se o novo número de empenho já existe (se for diferente do atual)
-        if (!empenho.getNumeroEmpenho().equals(empenhoDTO.getNumeroEmpenho()) &&
-            empenhoRepository.existsByNumeroEmpenho(empenhoDTO.getNumeroEmpenho())) {
-            throw new RuntimeException("Número de empenho já existe: " + empenhoDTO.getNumeroEmpenho());
+        // Verifica se o novo número de empenho já pertence a outro empenho
+        if (atualizacao.get().isNumeroEmUso()) {
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de empenho já existe: " + empenhoDTO.getNumeroEmpenho());
         }
         
         // NOVA VALIDAÇÃO: Verificar se o novo valor não é menor que a soma dos pagamentos já realizados
-        BigDecimal valorPagamentos = pagamentoRepository.sumValorByEmpenhoId(id);
-        if (valorPagamentos == null) valorPagamentos = BigDecimal.ZERO;
-        
-        System.out.println("Valor dos pagamentos do empenho: " + valorPagamentos);
+        BigDecimal valorPagamentos = empenho.getTotalPago();
         
         if (empenhoDTO.getValor().compareTo(valorPagamentos) < 0) {
-            throw new RuntimeException(String.format(
+            throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, String.format(
                 "O novo valor do empenho (R$ %.2f) não pode ser menor que a soma dos pagamentos já realizados (R$ %.2f)",
                 empenhoDTO.getValor().doubleValue(),
                 valorPagamentos.doubleValue()
@@ -110,53 +126,43 @@ public class EmpenhoService {
         }
         
         // Verificar se a nova soma dos empenhos não ultrapassará o valor da despesa
-        // Primeiro, vamos testar as duas abordagens para ver qual está dando problema
-        
-        // Abordagem 1: Soma todos e subtrai o atual
-        BigDecimal valorTodosEmpenhos = empenhoRepository.sumValorByDespesaId(empenho.getDespesa().getId());
-        if (valorTodosEmpenhos == null) valorTodosEmpenhos = BigDecimal.ZERO;
-        BigDecimal novoTotalAbordagem1 = valorTodosEmpenhos.subtract(empenho.getValor()).add(empenhoDTO.getValor());
-        
-        System.out.println("Abordagem 1 - Soma todos empenhos: " + valorTodosEmpenhos);
-        System.out.println("Abordagem 1 - Novo total: " + novoTotalAbordagem1);
-        
-        // Abordagem 2: Soma apenas os outros empenhos
-        BigDecimal valorOutrosEmpenhos = empenhoRepository.sumValorByDespesaIdExcluding(
-            empenho.getDespesa().getId(), 
-            id
-        );
-        if (valorOutrosEmpenhos == null) valorOutrosEmpenhos = BigDecimal.ZERO;
-        BigDecimal novoTotalAbordagem2 = valorOutrosEmpenhos.add(empenhoDTO.getValor());
-        
-        System.out.println("Abordagem 2 - Soma outros empenhos: " + valorOutrosEmpenhos);
-        System.out.println("Abordagem 2 - Novo total: " + novoTotalAbordagem2);
+        Despesa despesa = empenho.getDespesa();
+        BigDecimal novoTotal = despesa.getTotalEmpenhado().subtract(empenho.getValor()).add(empenhoDTO.getValor());
+        log.debug("Atualizando empenho {} da despesa {}: valor {} -> {}, pago {}, novo total empenhado {} de {}",
+                id, despesa.getId(), empenho.getValor(), empenhoDTO.getValor(), valorPagamentos, novoTotal, despesa.getValor());
         
-        // Vamos usar a abordagem 2
-        if (novoTotalAbordagem2.compareTo(empenho.getDespesa().getValor()) > 0) {
-            throw new RuntimeException(String.format(
+        if (novoTotal.compareTo(despesa.getValor()) > 0) {
+            throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, String.format(
                 "O valor total dos empenhos (R$ %.2f) não pode ultrapassar o valor da despesa (R$ %.2f)",
-                novoTotalAbordagem2.doubleValue(),
-                empenho.getDespesa().getValor().doubleValue()
+                novoTotal.doubleValue(),
+                despesa.getValor().doubleValue()
             ));
         }
         
-        System.out.println("Validação passou! Atualizando empenho...");
-        System.out.println("=== FIM DEBUG ===");
-        
         empenho.setNumeroEmpenho(empenhoDTO.getNumeroEmpenho());
         empenho.setDataEmpenho(empenhoDTO.getDataEmpenho());
-        empenho.setValor(empenhoDTO.getValor());
         empenho.setObservacao(empenhoDTO.getObservacao());
         
+        BigDecimal valorAnterior = empenho.getValor();
+        Totais.somarEmpenhado(despesa, empenhoDTO.getValor().subtract(valorAnterior));
+        empenho.setValor(empenhoDTO.getValor());
         empenho = empenhoRepository.save(empenho);
+        eventoService.empenhoAtualizado(empenho, valorAnterior);
         return convertToDTO(empenho);
     }
     
+    @Transactional
     public void deleteById(Long id) {
+        despesaRepository.findAllByEmpenhoIdsForUpdate(List.of(id));
+        
         if (empenhoRepository.hasPagamentos(id)) {
-            throw new RuntimeException("Não é possível excluir empenho que possui pagamentos associados");
+            throw new RegraNegocioException(CodigoErro.EXCLUSAO_BLOQUEADA, "Não é possível excluir empenho que possui pagamentos associados");
         }
-        empenhoRepository.deleteById(id);
+        empenhoRepository.findById(id).ifPresent(empenho -> {
+            Totais.somarEmpenhado(empenho.getDespesa(), empenho.getValor().negate());
+            eventoService.empenhoExcluido(empenho);
+            empenhoRepository.delete(empenho);
+        });
     }
     
     private EmpenhoDTO convertToDTO(Empenho empenho) {
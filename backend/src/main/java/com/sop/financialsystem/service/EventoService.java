@@ -0,0 +1,172 @@
+package com.sop.financialsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.EventoDominio;
+import com.sop.financialsystem.entity.Pagamento;
+import com.sop.financialsystem.repository.EventoDominioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Registra os eventos de domínio na mesma transação da escrita que os originou. Todo evento traz
+// o estado resultante da despesa (valor, totais e status materializados) e os fatos da alteração
+@Service
+public class EventoService {
+    
+    // Chaves do JSON dos eventos, lidas por ProjecaoDespesaService
+    static final String NUMERO_PROTOCOLO = "numeroProtocolo";
+    static final String TIPO_DESPESA = "tipoDespesa";
+    static final String DATA_PROTOCOLO = "dataProtocolo";
+    static final String DATA_VENCIMENTO = "dataVencimento";
+    static final String CREDOR = "credor";
+    static final String DESCRICAO = "descricao";
+    static final String VALOR_DESPESA = "valorDespesa";
+    static final String TOTAL_EMPENHADO = "totalEmpenhado";
+    static final String TOTAL_PAGO = "totalPago";
+    static final String STATUS = "status";
+    static final String QUANTIDADE_EMPENHOS = "quantidadeEmpenhos";
+    static final String QUANTIDADE_PAGAMENTOS = "quantidadePagamentos";
+    static final String DATA_ULTIMO_PAGAMENTO = "dataUltimoPagamento";
+    static final String NUMERO = "numero";
+    static final String VALOR = "valor";
+    static final String VALOR_ANTERIOR = "valorAnterior";
+    static final String EMPENHO_ID = "empenhoId";
+    static final String DATA_PAGAMENTO = "dataPagamento";
+    static final String DATA_PAGAMENTO_ANTERIOR = "dataPagamentoAnterior";
+    static final String ORIGEM = "origem";
+    
+    @Autowired
+    private EventoDominioRepository eventoRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public void despesaCriada(Despesa despesa) {
+        registrar(EventoDominio.DESPESA_CRIADA, despesa.getId(), despesa, dadosDespesa(despesa));
+    }
+    
+    public void despesaAtualizada(Despesa despesa) {
+        registrar(EventoDominio.DESPESA_ATUALIZADA, despesa.getId(), despesa, dadosDespesa(despesa));
+    }
+    
+    public void despesaReconciliada(Despesa despesa) {
+        registrar(EventoDominio.DESPESA_RECONCILIADA, despesa.getId(), despesa, new LinkedHashMap<>());
+    }
+    
+    public void despesaExcluida(Despesa despesa) {
+        registrar(EventoDominio.DESPESA_EXCLUIDA, despesa.getId(), despesa, new LinkedHashMap<>());
+    }
+    
+    // Alerta de despesa vencida sem pagamento integral (VencimentoDespesasService)
+    public void despesaVencida(Despesa despesa) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put(DATA_VENCIMENTO, despesa.getDataVencimento());
+        registrar(EventoDominio.DESPESA_VENCIDA, despesa.getId(), despesa, dados);
+    }
+    
+    // Para a projeção equivale à exclusão: a despesa sai do conjunto ativo
+    public void despesaArquivada(Despesa despesa) {
+        registrar(EventoDominio.DESPESA_ARQUIVADA, despesa.getId(), despesa, new LinkedHashMap<>());
+    }
+    
+    // Fotografia de uma despesa anterior ao log, com as contagens calculadas na carga inicial
+    public void despesaImportada(Despesa despesa, long empenhos, long pagamentos, LocalDate ultimoPagamento) {
+        Map<String, Object> dados = dadosDespesa(despesa);
+        dados.put(QUANTIDADE_EMPENHOS, empenhos);
+        dados.put(QUANTIDADE_PAGAMENTOS, pagamentos);
+        dados.put(DATA_ULTIMO_PAGAMENTO, ultimoPagamento);
+        registrar(EventoDominio.DESPESA_IMPORTADA, despesa.getId(), despesa, dados);
+    }
+    
+    public void empenhoCriado(Empenho empenho) {
+        registrar(EventoDominio.EMPENHO_CRIADO, empenho.getId(), empenho.getDespesa(), dadosEmpenho(empenho));
+    }
+    
+    public void empenhoAtualizado(Empenho empenho, BigDecimal valorAnterior) {
+        Map<String, Object> dados = dadosEmpenho(empenho);
+        dados.put(VALOR_ANTERIOR, valorAnterior);
+        registrar(EventoDominio.EMPENHO_ATUALIZADO, empenho.getId(), empenho.getDespesa(), dados);
+    }
+    
+    public void empenhoExcluido(Empenho empenho) {
+        registrar(EventoDominio.EMPENHO_EXCLUIDO, empenho.getId(), empenho.getDespesa(), dadosEmpenho(empenho));
+    }
+    
+    public void pagamentoCriado(Pagamento pagamento) {
+        registrar(EventoDominio.PAGAMENTO_CRIADO, pagamento.getId(), despesaDe(pagamento), dadosPagamento(pagamento));
+    }
+    
+    public void pagamentoAtualizado(Pagamento pagamento, LocalDate dataAnterior) {
+        Map<String, Object> dados = dadosPagamento(pagamento);
+        dados.put(DATA_PAGAMENTO_ANTERIOR, dataAnterior);
+        registrar(EventoDominio.PAGAMENTO_ATUALIZADO, pagamento.getId(), despesaDe(pagamento), dados);
+    }
+    
+    // Pagamento movido para um empenho de outra despesa: um evento para cada despesa afetada
+    public void pagamentoTransferido(Pagamento pagamento, Despesa origem, LocalDate dataAnterior) {
+        Map<String, Object> saida = dadosPagamento(pagamento);
+        saida.put(ORIGEM, true);
+        saida.put(DATA_PAGAMENTO_ANTERIOR, dataAnterior);
+        registrar(EventoDominio.PAGAMENTO_TRANSFERIDO, pagamento.getId(), origem, saida);
+        
+        Map<String, Object> entrada = dadosPagamento(pagamento);
+        entrada.put(ORIGEM, false);
+        registrar(EventoDominio.PAGAMENTO_TRANSFERIDO, pagamento.getId(), despesaDe(pagamento), entrada);
+    }
+    
+    public void pagamentoExcluido(Pagamento pagamento) {
+        registrar(EventoDominio.PAGAMENTO_EXCLUIDO, pagamento.getId(), despesaDe(pagamento), dadosPagamento(pagamento));
+    }
+    
+    private void registrar(String tipo, Long entidadeId, Despesa despesa, Map<String, Object> dados) {
+        dados.put(VALOR_DESPESA, despesa.getValor());
+        dados.put(TOTAL_EMPENHADO, despesa.getTotalEmpenhado());
+        dados.put(TOTAL_PAGO, despesa.getTotalPago());
+        dados.put(STATUS, despesa.getStatus());
+        try {
+            eventoRepository.save(new EventoDominio(tipo, entidadeId, despesa.getId(),
+                objectMapper.writeValueAsString(dados), LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Não foi possível registrar o evento " + tipo + ": " + e.getMessage());
+        }
+    }
+    
+    private Map<String, Object> dadosDespesa(Despesa despesa) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put(NUMERO_PROTOCOLO, despesa.getNumeroProtocolo());
+        dados.put(TIPO_DESPESA, despesa.getTipoDespesa());
+        dados.put(DATA_PROTOCOLO, despesa.getDataProtocolo());
+        dados.put(DATA_VENCIMENTO, despesa.getDataVencimento());
+        dados.put(CREDOR, despesa.getCredor());
+        dados.put(DESCRICAO, despesa.getDescricao());
+        return dados;
+    }
+    
+    private Map<String, Object> dadosEmpenho(Empenho empenho) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put(NUMERO, empenho.getNumeroEmpenho());
+        dados.put(VALOR, empenho.getValor());
+        return dados;
+    }
+    
+    private Map<String, Object> dadosPagamento(Pagamento pagamento) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put(NUMERO, pagamento.getNumeroPagamento());
+        dados.put(VALOR, pagamento.getValor());
+        dados.put(EMPENHO_ID, pagamento.getEmpenho().getId());
+        dados.put(DATA_PAGAMENTO, pagamento.getDataPagamento());
+        return dados;
+    }
+    
+    private Despesa despesaDe(Pagamento pagamento) {
+        return pagamento.getEmpenho().getDespesa();
+    }
+}
@@ -0,0 +1,132 @@
+package com.sop.financialsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.repository.DespesaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Service
+public class ExportacaoService {
+    
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+    public static final String CBOR = "cbor";
+    public static final String SMILE = "smile";
+    
+    private static final Map<String, String> TIPOS_CONTEUDO = Map.of(
+        NDJSON, "application/x-ndjson",
+        CSV, "text/csv;charset=UTF-8",
+        CBOR, "application/cbor-seq",
+        SMILE, "application/x-jackson-smile");
+    
+    // Envia ao cliente a cada N linhas, além da primeira, para o download começar imediatamente
+    private static final int LINHAS_POR_FLUSH = 1000;
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    
+    // Content-Type de cada formato; null para formato desconhecido
+    public static String tipoConteudo(String formato) {
+        return TIPOS_CONTEUDO.get(formato);
+    }
+    
+    // Escreve as despesas (com totais e status) direto na saída, uma linha por vez:
+    // o uso de memória não depende do tamanho da tabela
+    @Transactional(readOnly = true)
+    public void exportarDespesas(String formato, OutputStream saida) throws IOException {
+        try (Stream<DespesaDTO> despesas = despesaRepository.streamAllComTotais()) {
+            if (CSV.equals(formato)) {
+                escreverCsv(despesas.iterator(), saida);
+            } else if (CBOR.equals(formato)) {
+                // Sequência CBOR (RFC 8742): um item após o outro, sem separador
+                escreverSequencia(cborConverter.getObjectMapper().writer(), despesas.iterator(), saida);
+            } else if (SMILE.equals(formato)) {
+                escreverSequencia(smileConverter.getObjectMapper().writer(), despesas.iterator(), saida);
+            } else {
+                escreverSequencia(objectMapper.writer().withRootValueSeparator("\n"), despesas.iterator(), saida);
+            }
+        }
+    }
+    
+    private void escreverSequencia(ObjectWriter objectWriter, Iterator<DespesaDTO> despesas, OutputStream saida) throws IOException {
+        try (SequenceWriter writer = objectWriter.writeValues(saida)) {
+            int linhas = 0;
+            while (despesas.hasNext()) {
+                writer.write(despesas.next());
+                if (++linhas % LINHAS_POR_FLUSH == 1) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+    
+    private void escreverCsv(Iterator<DespesaDTO> despesas, OutputStream saida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write("id,numeroProtocolo,tipoDespesa,dataProtocolo,dataVencimento,credor,descricao,valor,totalEmpenhado,totalPago,status\n");
+        int linhas = 0;
+        while (despesas.hasNext()) {
+            DespesaDTO d = despesas.next();
+            writer.write(String.valueOf(d.getId()));
+            writer.write(',');
+            writer.write(campoCsv(d.getNumeroProtocolo()));
+            writer.write(',');
+            writer.write(campoCsv(d.getTipoDespesa()));
+            writer.write(',');
+            writer.write(String.valueOf(d.getDataProtocolo()));
+            writer.write(',');
+            writer.write(String.valueOf(d.getDataVencimento()));
+            writer.write(',');
+            writer.write(campoCsv(d.getCredor()));
+            writer.write(',');
+            writer.write(campoCsv(d.getDescricao()));
+            writer.write(',');
+            writer.write(d.getValor().toPlainString());
+            writer.write(',');
+            writer.write(d.getTotalEmpenhado().toPlainString());
+            writer.write(',');
+            writer.write(d.getTotalPago().toPlainString());
+            writer.write(',');
+            writer.write(campoCsv(d.getStatus()));
+            writer.write('\n');
+            if (++linhas % LINHAS_POR_FLUSH == 1) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+    
+    private String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,66 @@
+package com.sop.financialsystem.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom de strings, seguro para uso concorrente. "Não contém" é definitivo; "pode conter"
+// precisa ser confirmado no banco. Só aceita inclusões: valores removidos continuam como positivos
+final class FiltroBloom {
+    
+    private final AtomicLongArray bits;
+    private final long tamanho;
+    private final int funcoes;
+    
+    // Dimensionado para "capacidade" valores com a taxa de falso positivo informada
+    FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long bitsNecessarios = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.max(1, (bitsNecessarios + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.tamanho = (long) palavras * 64;
+        this.funcoes = (int) Math.max(1, Math.round((double) tamanho / capacidade * Math.log(2)));
+    }
+    
+    void adicionar(String valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 + 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long indice = ((h1 + i * h2) & Long.MAX_VALUE) % tamanho;
+            int palavra = (int) (indice >>> 6);
+            long mascara = 1L << indice;
+            // Evita a escrita (e a disputa pela linha de cache) quando o bit já está marcado
+            if ((bits.get(palavra) & mascara) == 0) {
+                bits.getAndAccumulate(palavra, mascara, (atual, bit) -> atual | bit);
+            }
+        }
+    }
+    
+    boolean podeConter(String valor) {
+        long h1 = hash(valor);
+        long h2 = misturar(h1 + 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < funcoes; i++) {
+            long indice = ((h1 + i * h2) & Long.MAX_VALUE) % tamanho;
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // FNV-1a de 64 bits sobre os caracteres, com o finalizador do MurmurHash3 para espalhar os bits
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return misturar(h);
+    }
+    
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
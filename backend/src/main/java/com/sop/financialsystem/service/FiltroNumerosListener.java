@@ -0,0 +1,32 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Mantém os filtros de números em dia com toda gravação, inclusive importação e ingestão em lote
+@Component
+public class FiltroNumerosListener {
+    
+    // Lazy pelo mesmo motivo de ProjecaoDespesaListener: o serviço depende dos repositórios
+    @Autowired
+    @Lazy
+    private FiltroNumerosService filtroNumerosService;
+    
+    @PostPersist
+    @PostUpdate
+    public void registrar(Object entidade) {
+        if (entidade instanceof Despesa despesa) {
+            filtroNumerosService.registrarProtocolo(despesa.getNumeroProtocolo());
+        } else if (entidade instanceof Empenho empenho) {
+            filtroNumerosService.registrarEmpenho(empenho.getNumeroEmpenho());
+        } else if (entidade instanceof Pagamento pagamento) {
+            filtroNumerosService.registrarPagamento(pagamento.getNumeroPagamento());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.EmpenhoRepository;
+import com.sop.financialsystem.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Filtros de Bloom dos números únicos (protocolo, empenho e pagamento). Quase toda criação traz um
+// número novo, e o "não existe" do filtro dispensa a consulta de unicidade; um "pode existir" segue
+// para o banco. A constraint unique das tabelas continua sendo a garantia final
+@Service
+public class FiltroNumerosService {
+    
+    private static final Logger log = LoggerFactory.getLogger(FiltroNumerosService.class);
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private EmpenhoRepository empenhoRepository;
+    
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    
+    private final long capacidade;
+    
+    // Criados com o bean: números gravados enquanto a carga roda também entram nos filtros
+    private final FiltroBloom protocolos;
+    private final FiltroBloom empenhos;
+    private final FiltroBloom pagamentos;
+    
+    // Até o fim da carga os filtros não são conclusivos e toda verificação vai ao banco
+    private volatile boolean carregado;
+    
+    public FiltroNumerosService(@Value("${app.filtro-numeros.capacidade:1000000}") long capacidade,
+                                @Value("${app.filtro-numeros.falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.capacidade = capacidade;
+        this.protocolos = new FiltroBloom(capacidade, taxaFalsoPositivo);
+        this.empenhos = new FiltroBloom(capacidade, taxaFalsoPositivo);
+        this.pagamentos = new FiltroBloom(capacidade, taxaFalsoPositivo);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.nanoTime();
+        carregar("protocolos", despesaRepository.streamNumerosProtocolo(), protocolos);
+        carregar("empenhos", empenhoRepository.streamNumerosEmpenho(), empenhos);
+        carregar("pagamentos", pagamentoRepository.streamNumerosPagamento(), pagamentos);
+        carregado = true;
+        log.info("Filtros de números carregados em {} ms", (System.nanoTime() - inicio) / 1_000_000);
+    }
+    
+    public boolean protocoloPodeExistir(String numeroProtocolo) {
+        return podeExistir(protocolos, numeroProtocolo);
+    }
+    
+    public boolean empenhoPodeExistir(String numeroEmpenho) {
+        return podeExistir(empenhos, numeroEmpenho);
+    }
+    
+    public boolean pagamentoPodeExistir(String numeroPagamento) {
+        return podeExistir(pagamentos, numeroPagamento);
+    }
+    
+    // Chamados na inclusão e na alteração (FiltroNumerosListener), antes do commit: uma transação
+    // desfeita deixa apenas um falso positivo. Exclusões não saem do filtro pelo mesmo motivo
+    public void registrarProtocolo(String numeroProtocolo) {
+        registrar(protocolos, numeroProtocolo);
+    }
+    
+    public void registrarEmpenho(String numeroEmpenho) {
+        registrar(empenhos, numeroEmpenho);
+    }
+    
+    public void registrarPagamento(String numeroPagamento) {
+        registrar(pagamentos, numeroPagamento);
+    }
+    
+    private boolean podeExistir(FiltroBloom filtro, String numero) {
+        return !carregado || numero == null || filtro.podeConter(numero);
+    }
+    
+    private void registrar(FiltroBloom filtro, String numero) {
+        if (numero != null) {
+            filtro.adicionar(numero);
+        }
+    }
+    
+    private void carregar(String nome, Stream<String> numeros, FiltroBloom filtro) {
+        long quantidade = 0;
+        try (numeros) {
+            for (Iterator<String> it = numeros.iterator(); it.hasNext(); quantidade++) {
+                registrar(filtro, it.next());
+            }
+        }
+        if (quantidade > capacidade) {
+            // O filtro continua correto, mas a taxa de falsos positivos cresce além da configurada
+            log.warn("Filtro de {}: {} números para capacidade de {}; aumente app.filtro-numeros.capacidade",
+                    nome, quantidade, capacidade);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.sop.financialsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sop.financialsystem.entity.RespostaIdempotente;
+import com.sop.financialsystem.repository.RespostaIdempotenteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Respostas dos POST com Idempotency-Key (ver IdempotenciaFilter). Cada chave guarda a execução
+// que a reservou: quem chega enquanto ela está em andamento espera pelo mesmo resultado em vez de
+// executar de novo, e quem chega depois recebe a resposta guardada. A memória é limitada e expira
+// após a retenção; com app.idempotencia.persistir=true as respostas também vão para o banco e
+// sobrevivem a reinícios (a espera conjunta continua valendo só dentro da instância)
+@Service
+public class IdempotenciaService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+    
+    @Autowired
+    private RespostaIdempotenteRepository respostaRepository;
+    
+    @Value("${app.idempotencia.persistir:false}")
+    private boolean persistir;
+    
+    private final Duration retencao;
+    
+    private final Cache<String, CompletableFuture<RespostaIdempotente>> execucoes;
+    
+    private final Counter repetidas;
+    private final Counter executadas;
+    
+    public IdempotenciaService(@Value("${app.idempotencia.capacidade:10000}") int capacidade,
+                               @Value("${app.idempotencia.retencao:PT24H}") Duration retencao,
+                               MeterRegistry meterRegistry) {
+        this.retencao = retencao;
+        this.execucoes = Caffeine.newBuilder()
+            .maximumSize(capacidade)
+            .expireAfterWrite(retencao)
+            .build();
+        this.repetidas = Counter.builder("http.idempotencia")
+            .description("POST com Idempotency-Key respondidos com a resposta de outra execução")
+            .tag("resultado", "repetida")
+            .register(meterRegistry);
+        this.executadas = Counter.builder("http.idempotencia")
+            .description("POST com Idempotency-Key executados")
+            .tag("resultado", "executada")
+            .register(meterRegistry);
+    }
+    
+    // Reserva a chave para "execucao" e devolve vazio, ou devolve a execução que já a tinha (em
+    // andamento, concluída ou lida do banco). Quem reserva deve chamar concluir ou falhar
+    public Optional<CompletableFuture<RespostaIdempotente>> reservar(String chave,
+                                                                    CompletableFuture<RespostaIdempotente> execucao) {
+        CompletableFuture<RespostaIdempotente> anterior = execucoes.asMap().putIfAbsent(chave, execucao);
+        if (anterior != null) {
+            repetidas.increment();
+            return Optional.of(anterior);
+        }
+        if (persistir) {
+            Optional<RespostaIdempotente> gravada = buscarGravada(chave);
+            if (gravada.isPresent()) {
+                // Quem já espera por esta reserva recebe a mesma resposta
+                execucao.complete(gravada.get());
+                repetidas.increment();
+                return Optional.of(execucao);
+            }
+        }
+        executadas.increment();
+        return Optional.empty();
+    }
+    
+    // Erros 5xx e conflitos (409, que dependem do estado no momento) não são guardados: liberam a
+    // chave para uma nova tentativa, mas ainda são entregues a quem esperava por esta execução
+    public void concluir(String chave, CompletableFuture<RespostaIdempotente> execucao, RespostaIdempotente resposta) {
+        if (resposta.getStatus() >= 500 || resposta.getStatus() == HttpStatus.CONFLICT.value()) {
+            execucoes.asMap().remove(chave, execucao);
+        } else if (persistir) {
+            gravar(resposta);
+        }
+        execucao.complete(resposta);
+    }
+    
+    public void falhar(String chave, CompletableFuture<RespostaIdempotente> execucao, Throwable erro) {
+        execucoes.asMap().remove(chave, execucao);
+        execucao.completeExceptionally(erro);
+    }
+    
+    private Optional<RespostaIdempotente> buscarGravada(String chave) {
+        try {
+            return respostaRepository.findById(chave)
+                .filter(resposta -> resposta.getCriadoEm().isAfter(LocalDateTime.now().minus(retencao)));
+        } catch (RuntimeException e) {
+            // Sem o banco a requisição é executada; a unicidade dos números ainda barra a duplicata
+            log.warn("Falha ao ler a resposta idempotente {}", chave, e);
+            return Optional.empty();
+        }
+    }
+    
+    private void gravar(RespostaIdempotente resposta) {
+        try {
+            respostaRepository.save(resposta);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância gravou a mesma chave; a resposta dela já está no banco
+            log.debug("Resposta idempotente {} já gravada", resposta.getChave());
+        } catch (RuntimeException e) {
+            // A resposta continua em memória; só a repetição após um reinício fica comprometida
+            log.warn("Falha ao gravar a resposta idempotente {}", resposta.getChave(), e);
+        }
+    }
+    
+    @Scheduled(cron = "${app.idempotencia.limpeza-cron:0 15 * * * *}")
+    public void limpar() {
+        if (!persistir) {
+            return;
+        }
+        int removidas = respostaRepository.deleteCriadasAntes(LocalDateTime.now().minus(retencao));
+        if (removidas > 0) {
+            log.info("{} resposta(s) idempotente(s) expirada(s) removida(s)", removidas);
+        }
+    }
+}
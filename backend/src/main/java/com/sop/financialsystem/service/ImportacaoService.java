@@ -0,0 +1,373 @@
+package com.sop.financialsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.ResultadoImportacaoDTO;
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.EmpenhoRepository;
+import com.sop.financialsystem.repository.PagamentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+@Service
+public class ImportacaoService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ImportacaoService.class);
+    
+    // Registros por transação; múltiplo de hibernate.jdbc.batch_size
+    private static final int TAMANHO_LOTE = 500;
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private EmpenhoRepository empenhoRepository;
+    
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private FiltroNumerosService filtroNumerosService;
+    
+    @Autowired
+    private VencimentoDespesasService vencimentoDespesasService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public List<ResultadoImportacaoDTO> importarDespesas(InputStream entrada, boolean csv) {
+        return importar(entrada, csv, DespesaDTO.class, this::gravarDespesas, this::falhaDespesa);
+    }
+    
+    public List<ResultadoImportacaoDTO> importarEmpenhos(InputStream entrada, boolean csv) {
+        return importar(entrada, csv, EmpenhoDTO.class, this::gravarEmpenhos, this::falhaEmpenho);
+    }
+    
+    public List<ResultadoImportacaoDTO> importarPagamentos(InputStream entrada, boolean csv) {
+        return importar(entrada, csv, PagamentoDTO.class, this::gravarPagamentos, this::falhaPagamento);
+    }
+    
+    @FunctionalInterface
+    private interface GravadorLote<T> {
+        // "importados" traz os números já gravados nesta importação; "doLote" recebe os números gravados no lote
+        List<ResultadoImportacaoDTO> gravar(List<T> itens, int primeiraLinha, Set<String> importados, Set<String> doLote);
+    }
+    
+    // Mensagem de rejeição de um registro cuja gravação falhou no banco
+    @FunctionalInterface
+    private interface DescricaoFalha<T> {
+        String descrever(T item, RuntimeException e);
+    }
+    
+    private <T> List<ResultadoImportacaoDTO> importar(InputStream entrada, boolean csv, Class<T> tipo,
+                                                      GravadorLote<T> gravador, DescricaoFalha<T> falha) {
+        Iterator<T> leitor;
+        try {
+            leitor = LeitorLote.abrir(entrada, csv, tipo, objectMapper);
+        } catch (IOException e) {
+            throw new RegraNegocioException(CodigoErro.DADOS_INVALIDOS, "Não foi possível ler o arquivo de importação: " + e.getMessage());
+        }
+        
+        List<ResultadoImportacaoDTO> resultados = new ArrayList<>();
+        Set<String> importados = new HashSet<>();
+        List<T> lote = new ArrayList<>(TAMANHO_LOTE);
+        int linha = 0;
+        RuntimeException erroLeitura = null;
+        try {
+            while (leitor.hasNext()) {
+                lote.add(leitor.next());
+                linha++;
+                if (lote.size() == TAMANHO_LOTE) {
+                    resultados.addAll(gravarLote(gravador, falha, lote, linha - lote.size() + 1, importados));
+                    lote.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Registro malformado: interrompe a leitura, mantendo o que já foi gravado
+            erroLeitura = e;
+        }
+        
+        if (!lote.isEmpty()) {
+            resultados.addAll(gravarLote(gravador, falha, lote, linha - lote.size() + 1, importados));
+        }
+        if (erroLeitura != null) {
+            resultados.add(ResultadoImportacaoDTO.rejeitado(linha + 1,
+                "Registro inválido, importação interrompida: " + erroLeitura.getMessage()));
+        }
+        return resultados;
+    }
+    
+    // Uma transação por lote; se ela falhar (por exemplo, número gravado por outra requisição entre a
+    // verificação e o commit), cada registro é refeito isoladamente, como na ingestão de pagamentos,
+    // para que só o registro com problema seja rejeitado
+    private <T> List<ResultadoImportacaoDTO> gravarLote(GravadorLote<T> gravador, DescricaoFalha<T> falha, List<T> itens,
+                                                        int primeiraLinha, Set<String> importados) {
+        Set<String> doLote = new HashSet<>();
+        try {
+            List<ResultadoImportacaoDTO> resultados = transactionTemplate.execute(status -> {
+                List<ResultadoImportacaoDTO> gravados = gravador.gravar(itens, primeiraLinha, importados, doLote);
+                // Envia os inserts em batch e libera as entidades do contexto de persistência
+                entityManager.flush();
+                entityManager.clear();
+                return gravados;
+            });
+            importados.addAll(doLote);
+            return resultados;
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            if (itens.size() > 1) {
+                log.debug("Lote de {} registro(s) desfeito, gravando individualmente", itens.size());
+                List<ResultadoImportacaoDTO> resultados = new ArrayList<>(itens.size());
+                for (int i = 0; i < itens.size(); i++) {
+                    resultados.addAll(gravarLote(gravador, falha, List.of(itens.get(i)), primeiraLinha + i, importados));
+                }
+                return resultados;
+            }
+            return List.of(ResultadoImportacaoDTO.rejeitado(primeiraLinha, falha.descrever(itens.get(0), e)));
+        }
+    }
+    
+    private String falhaDespesa(DespesaDTO dto, RuntimeException e) {
+        if (ViolacaoIntegridade.unicidade(e)) {
+            return "Número de protocolo já existe: " + dto.getNumeroProtocolo();
+        }
+        return falhaInesperada(e);
+    }
+    
+    private String falhaEmpenho(EmpenhoDTO dto, RuntimeException e) {
+        if (ViolacaoIntegridade.unicidade(e)) {
+            return "Número de empenho já existe: " + dto.getNumeroEmpenho();
+        }
+        if (ViolacaoIntegridade.chaveEstrangeira(e)) {
+            return "Despesa não encontrada com ID: " + dto.getDespesaId();
+        }
+        return falhaInesperada(e);
+    }
+    
+    private String falhaPagamento(PagamentoDTO dto, RuntimeException e) {
+        if (ViolacaoIntegridade.unicidade(e)) {
+            return "Número de pagamento já existe: " + dto.getNumeroPagamento();
+        }
+        if (ViolacaoIntegridade.chaveEstrangeira(e)) {
+            return "Empenho não encontrado com ID: " + dto.getEmpenhoId();
+        }
+        return falhaInesperada(e);
+    }
+    
+    // Regras de negócio mantêm a mensagem; o texto de falhas do banco não vai para o cliente
+    private String falhaInesperada(RuntimeException e) {
+        if (e instanceof RegraNegocioException) {
+            return e.getMessage();
+        }
+        if (ViolacaoIntegridade.dadosInvalidos(e)) {
+            log.debug("Registro importado recusado pelo banco", e);
+            return "Dados inválidos para gravação";
+        }
+        log.error("Falha na gravação de registro importado", e);
+        return "Erro interno do servidor";
+    }
+    
+    private List<ResultadoImportacaoDTO> gravarDespesas(List<DespesaDTO> itens, int primeiraLinha,
+                                                       Set<String> importados, Set<String> doLote) {
+        Set<String> existentes = numerosExistentes(itens, DespesaDTO::getNumeroProtocolo,
+            filtroNumerosService::protocoloPodeExistir, despesaRepository::findNumerosProtocoloExistentes);
+        
+        List<ResultadoImportacaoDTO> resultados = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            DespesaDTO dto = itens.get(i);
+            int linha = primeiraLinha + i;
+            
+            if (dto.getNumeroProtocolo() == null || dto.getTipoDespesa() == null || dto.getDataProtocolo() == null ||
+                dto.getDataVencimento() == null || dto.getCredor() == null || dto.getDescricao() == null) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Campos obrigatórios não informados"));
+                continue;
+            }
+            if (!valorPositivo(dto.getValor())) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "O valor deve ser maior que zero"));
+                continue;
+            }
+            if (numeroRepetido(dto.getNumeroProtocolo(), existentes, importados, doLote)) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Número de protocolo já existe: " + dto.getNumeroProtocolo()));
+                continue;
+            }
+            
+            Despesa despesa = new Despesa();
+            despesa.setNumeroProtocolo(dto.getNumeroProtocolo());
+            despesa.setTipoDespesa(dto.getTipoDespesa());
+            despesa.setDataProtocolo(dto.getDataProtocolo());
+            despesa.setDataVencimento(dto.getDataVencimento());
+            despesa.setCredor(dto.getCredor());
+            despesa.setDescricao(dto.getDescricao());
+            despesa.setValor(dto.getValor());
+            StatusDespesa.atualizar(despesa);
+            despesaRepository.save(despesa);
+            eventoService.despesaCriada(despesa);
+            vencimentoDespesasService.verificarEscrita(despesa);
+            resultados.add(ResultadoImportacaoDTO.importado(linha, despesa.getId()));
+        }
+        return resultados;
+    }
+    
+    private List<ResultadoImportacaoDTO> gravarEmpenhos(List<EmpenhoDTO> itens, int primeiraLinha,
+                                                       Set<String> importados, Set<String> doLote) {
+        Set<String> existentes = numerosExistentes(itens, EmpenhoDTO::getNumeroEmpenho,
+            filtroNumerosService::empenhoPodeExistir, empenhoRepository::findNumerosEmpenhoExistentes);
+        
+        // Bloqueia de uma vez as despesas do lote; os tetos são validados em memória com os totais materializados
+        Set<Long> despesaIds = itens.stream().map(EmpenhoDTO::getDespesaId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Despesa> despesas = new HashMap<>();
+        if (!despesaIds.isEmpty()) {
+            despesaRepository.findAllByIdForUpdate(despesaIds).forEach(d -> despesas.put(d.getId(), d));
+        }
+        
+        List<ResultadoImportacaoDTO> resultados = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            EmpenhoDTO dto = itens.get(i);
+            int linha = primeiraLinha + i;
+            
+            if (dto.getNumeroEmpenho() == null || dto.getDataEmpenho() == null || dto.getDespesaId() == null) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Campos obrigatórios não informados"));
+                continue;
+            }
+            if (!valorPositivo(dto.getValor())) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "O valor deve ser maior que zero"));
+                continue;
+            }
+            Despesa despesa = despesas.get(dto.getDespesaId());
+            if (despesa == null) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Despesa não encontrada com ID: " + dto.getDespesaId()));
+                continue;
+            }
+            BigDecimal novoTotal = despesa.getTotalEmpenhado().add(dto.getValor());
+            if (novoTotal.compareTo(despesa.getValor()) > 0) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, String.format(
+                    "O valor total dos empenhos (R$ %.2f) não pode ultrapassar o valor da despesa (R$ %.2f)",
+                    novoTotal.doubleValue(), despesa.getValor().doubleValue())));
+                continue;
+            }
+            if (numeroRepetido(dto.getNumeroEmpenho(), existentes, importados, doLote)) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Número de empenho já existe: " + dto.getNumeroEmpenho()));
+                continue;
+            }
+            
+            Empenho empenho = new Empenho();
+            empenho.setNumeroEmpenho(dto.getNumeroEmpenho());
+            empenho.setDataEmpenho(dto.getDataEmpenho());
+            empenho.setValor(dto.getValor());
+            empenho.setObservacao(dto.getObservacao());
+            empenho.setDespesa(despesa);
+            empenhoRepository.save(empenho);
+            Totais.somarEmpenhado(despesa, dto.getValor());
+            eventoService.empenhoCriado(empenho);
+            resultados.add(ResultadoImportacaoDTO.importado(linha, empenho.getId()));
+        }
+        return resultados;
+    }
+    
+    private List<ResultadoImportacaoDTO> gravarPagamentos(List<PagamentoDTO> itens, int primeiraLinha,
+                                                         Set<String> importados, Set<String> doLote) {
+        Set<String> existentes = numerosExistentes(itens, PagamentoDTO::getNumeroPagamento,
+            filtroNumerosService::pagamentoPodeExistir, pagamentoRepository::findNumerosPagamentoExistentes);
+        
+        // Bloqueia as despesas dos empenhos do lote antes de ler os empenhos, como em PagamentoService
+        Set<Long> empenhoIds = itens.stream().map(PagamentoDTO::getEmpenhoId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Empenho> empenhos = new HashMap<>();
+        if (!empenhoIds.isEmpty()) {
+            despesaRepository.findAllByEmpenhoIdsForUpdate(empenhoIds);
+            empenhoRepository.findAllById(empenhoIds).forEach(e -> empenhos.put(e.getId(), e));
+        }
+        
+        List<ResultadoImportacaoDTO> resultados = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            PagamentoDTO dto = itens.get(i);
+            int linha = primeiraLinha + i;
+            
+            if (dto.getNumeroPagamento() == null || dto.getDataPagamento() == null || dto.getEmpenhoId() == null) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Campos obrigatórios não informados"));
+                continue;
+            }
+            if (!valorPositivo(dto.getValor())) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "O valor deve ser maior que zero"));
+                continue;
+            }
+            Empenho empenho = empenhos.get(dto.getEmpenhoId());
+            if (empenho == null) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Empenho não encontrado com ID: " + dto.getEmpenhoId()));
+                continue;
+            }
+            if (empenho.getTotalPago().add(dto.getValor()).compareTo(empenho.getValor()) > 0) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "A soma dos pagamentos não pode ultrapassar o valor do empenho"));
+                continue;
+            }
+            if (numeroRepetido(dto.getNumeroPagamento(), existentes, importados, doLote)) {
+                resultados.add(ResultadoImportacaoDTO.rejeitado(linha, "Número de pagamento já existe: " + dto.getNumeroPagamento()));
+                continue;
+            }
+            
+            Pagamento pagamento = new Pagamento();
+            pagamento.setNumeroPagamento(dto.getNumeroPagamento());
+            pagamento.setDataPagamento(dto.getDataPagamento());
+            pagamento.setValor(dto.getValor());
+            pagamento.setObservacao(dto.getObservacao());
+            pagamento.setEmpenho(empenho);
+            pagamentoRepository.save(pagamento);
+            Totais.somarPago(empenho, dto.getValor());
+            eventoService.pagamentoCriado(pagamento);
+            resultados.add(ResultadoImportacaoDTO.importado(linha, pagamento.getId()));
+        }
+        return resultados;
+    }
+    
+    // Uma única consulta (IN) para os números do lote que o filtro não descarta; sem candidatos, nenhuma
+    private <T> Set<String> numerosExistentes(List<T> itens, Function<T, String> numero, Predicate<String> podeExistir,
+                                              Function<Collection<String>, List<String>> consulta) {
+        Set<String> numeros = itens.stream().map(numero).filter(Objects::nonNull).filter(podeExistir)
+            .collect(Collectors.toSet());
+        return numeros.isEmpty() ? Set.of() : new HashSet<>(consulta.apply(numeros));
+    }
+    
+    private boolean numeroRepetido(String numero, Set<String> existentes, Set<String> importados, Set<String> doLote) {
+        return existentes.contains(numero) || importados.contains(numero) || !doLote.add(numero);
+    }
+    
+    private boolean valorPositivo(BigDecimal valor) {
+        return valor != null && valor.compareTo(BigDecimal.ZERO) > 0;
+    }
+}
@@ -0,0 +1,304 @@
+package com.sop.financialsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.SituacaoIngestaoDTO;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.entity.Pagamento;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.EmpenhoRepository;
+import com.sop.financialsystem.repository.PagamentoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Ingestão assíncrona de pagamentos: as solicitações entram numa fila limitada e uma única thread
+// as grava em lotes, agrupadas por empenho. Cada grupo é validado uma vez contra o saldo do empenho
+// e o lote inteiro é gravado numa só transação
+@Service
+public class IngestaoPagamentoService {
+    
+    private static final Logger log = LoggerFactory.getLogger(IngestaoPagamentoService.class);
+    
+    // Espera máxima de GET /ingestao/{id}?aguardarMs=
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private EmpenhoRepository empenhoRepository;
+    
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private FiltroNumerosService filtroNumerosService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Solicitações por transação; múltiplo de hibernate.jdbc.batch_size
+    @Value("${app.ingestao.lote:500}")
+    private int tamanhoLote;
+    
+    // Tempo que uma solicitação espera por espaço na fila antes de ser recusada
+    @Value("${app.ingestao.espera-fila-ms:100}")
+    private long esperaFilaMs;
+    
+    private final BlockingQueue<Solicitacao> fila;
+    
+    // Resultados consultáveis por id de aceite; expiram após a retenção configurada
+    private final Cache<String, CompletableFuture<SituacaoIngestaoDTO>> situacoes;
+    
+    private final Thread gravador = new Thread(this::gravarContinuamente, "ingestao-pagamentos");
+    
+    private volatile boolean ativo = true;
+    
+    public IngestaoPagamentoService(@Value("${app.ingestao.fila:10000}") int capacidadeFila,
+                                    @Value("${app.ingestao.retencao:PT1H}") Duration retencao) {
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.situacoes = Caffeine.newBuilder()
+            .maximumSize(capacidadeFila * 10L)
+            .expireAfterWrite(retencao)
+            .build();
+    }
+    
+    @PostConstruct
+    public void iniciar() {
+        Gauge.builder("ingestao.pagamentos.fila", fila, BlockingQueue::size)
+            .description("Pagamentos aguardando gravação")
+            .register(meterRegistry);
+        gravador.start();
+    }
+    
+    // Grava o que ainda está na fila antes de encerrar
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        gravador.join(TimeUnit.SECONDS.toMillis(30));
+    }
+    
+    // Enfileira o pagamento e devolve o id de aceite; vazio quando a fila continua cheia após a espera
+    public Optional<SituacaoIngestaoDTO> enfileirar(PagamentoDTO pagamentoDTO) {
+        Solicitacao solicitacao = new Solicitacao(UUID.randomUUID().toString(), pagamentoDTO);
+        situacoes.put(solicitacao.id, solicitacao.resultado);
+        try {
+            if (fila.offer(solicitacao, esperaFilaMs, TimeUnit.MILLISECONDS)) {
+                return Optional.of(SituacaoIngestaoDTO.pendente(solicitacao.id));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        situacoes.invalidate(solicitacao.id);
+        return Optional.empty();
+    }
+    
+    // Situação da solicitação; com aguardarMs > 0, espera até esse tempo pelo resultado
+    public Optional<SituacaoIngestaoDTO> consultar(String id, long aguardarMs) {
+        CompletableFuture<SituacaoIngestaoDTO> resultado = situacoes.getIfPresent(id);
+        if (resultado == null) {
+            return Optional.empty();
+        }
+        if (!resultado.isDone() && aguardarMs > 0) {
+            try {
+                return Optional.of(resultado.get(Math.min(aguardarMs, ESPERA_MAXIMA_MS), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException | ExecutionException e) {
+                return Optional.of(SituacaoIngestaoDTO.pendente(id));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Optional.of(resultado.getNow(SituacaoIngestaoDTO.pendente(id)));
+    }
+    
+    private void gravarContinuamente() {
+        List<Solicitacao> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Solicitacao primeira = fila.poll(1, TimeUnit.SECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                // Sob carga o lote enche com o que já está na fila; com pouca carga sai com um só item
+                lote.add(primeira);
+                fila.drainTo(lote, tamanhoLote - 1);
+                gravarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha na ingestão de {} pagamento(s)", lote.size(), e);
+                lote.forEach(s -> s.resultado.complete(SituacaoIngestaoDTO.rejeitado(s.id, "Erro interno do servidor")));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+    
+    // Uma transação por lote; se ela falhar (por exemplo, número gravado por outra requisição no meio
+    // do caminho), cada solicitação é refeita isoladamente para que uma não derrube as demais
+    private void gravarLote(List<Solicitacao> lote) {
+        Map<Solicitacao, SituacaoIngestaoDTO> resultados;
+        try {
+            resultados = transactionTemplate.execute(status -> {
+                Map<Solicitacao, SituacaoIngestaoDTO> gravados = gravar(lote);
+                entityManager.flush();
+                entityManager.clear();
+                return gravados;
+            });
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            if (lote.size() > 1) {
+                log.debug("Lote de {} pagamento(s) desfeito, gravando individualmente", lote.size());
+                lote.forEach(solicitacao -> gravarLote(List.of(solicitacao)));
+                return;
+            }
+            resultados = Map.of(lote.get(0), SituacaoIngestaoDTO.rejeitado(lote.get(0).id, descreverFalha(lote.get(0).dto, e)));
+        }
+        resultados.forEach((solicitacao, situacao) -> solicitacao.resultado.complete(situacao));
+    }
+    
+    // Mesmas mensagens de PagamentoService para as falhas conhecidas; o texto do banco não vai para o cliente
+    private String descreverFalha(PagamentoDTO dto, RuntimeException e) {
+        if (e instanceof RegraNegocioException) {
+            return e.getMessage();
+        }
+        if (ViolacaoIntegridade.unicidade(e)) {
+            return "Número de pagamento já existe: " + dto.getNumeroPagamento();
+        }
+        if (ViolacaoIntegridade.chaveEstrangeira(e)) {
+            return "Empenho não encontrado com ID: " + dto.getEmpenhoId();
+        }
+        if (ViolacaoIntegridade.dadosInvalidos(e)) {
+            log.debug("Pagamento recusado pelo banco", e);
+            return "Dados inválidos para gravação";
+        }
+        log.error("Falha na gravação do pagamento {}", dto.getNumeroPagamento(), e);
+        return "Erro interno do servidor";
+    }
+    
+    private Map<Solicitacao, SituacaoIngestaoDTO> gravar(List<Solicitacao> lote) {
+        Map<Solicitacao, SituacaoIngestaoDTO> resultados = new HashMap<>();
+        
+        // Validações que não dependem do empenho, inclusive números repetidos no banco ou no próprio lote
+        Set<String> numeros = new HashSet<>();
+        lote.forEach(s -> {
+            if (s.dto.getNumeroPagamento() != null && filtroNumerosService.pagamentoPodeExistir(s.dto.getNumeroPagamento())) {
+                numeros.add(s.dto.getNumeroPagamento());
+            }
+        });
+        Set<String> existentes = numeros.isEmpty() ? Set.of()
+            : new HashSet<>(pagamentoRepository.findNumerosPagamentoExistentes(numeros));
+        Set<String> doLote = new HashSet<>();
+        
+        Map<Long, List<Solicitacao>> porEmpenho = new LinkedHashMap<>();
+        for (Solicitacao s : lote) {
+            PagamentoDTO dto = s.dto;
+            if (dto.getNumeroPagamento() == null || dto.getDataPagamento() == null || dto.getEmpenhoId() == null) {
+                resultados.put(s, SituacaoIngestaoDTO.rejeitado(s.id, "Campos obrigatórios não informados"));
+            } else if (dto.getValor() == null || dto.getValor().compareTo(BigDecimal.ZERO) <= 0) {
+                resultados.put(s, SituacaoIngestaoDTO.rejeitado(s.id, "O valor deve ser maior que zero"));
+            } else if (existentes.contains(dto.getNumeroPagamento()) || !doLote.add(dto.getNumeroPagamento())) {
+                resultados.put(s, SituacaoIngestaoDTO.rejeitado(s.id, "Número de pagamento já existe: " + dto.getNumeroPagamento()));
+            } else {
+                porEmpenho.computeIfAbsent(dto.getEmpenhoId(), id -> new ArrayList<>()).add(s);
+            }
+        }
+        if (porEmpenho.isEmpty()) {
+            return resultados;
+        }
+        
+        // Bloqueia as despesas dos empenhos do lote antes de ler os empenhos, como em PagamentoService
+        despesaRepository.findAllByEmpenhoIdsForUpdate(porEmpenho.keySet());
+        Map<Long, Empenho> empenhos = new HashMap<>();
+        empenhoRepository.findAllById(porEmpenho.keySet()).forEach(e -> empenhos.put(e.getId(), e));
+        
+        porEmpenho.forEach((empenhoId, solicitacoes) -> {
+            Empenho empenho = empenhos.get(empenhoId);
+            if (empenho == null) {
+                solicitacoes.forEach(s -> resultados.put(s,
+                    SituacaoIngestaoDTO.rejeitado(s.id, "Empenho não encontrado com ID: " + empenhoId)));
+                return;
+            }
+            
+            // Saldo lido uma vez por empenho; as solicitações consomem o saldo na ordem de chegada
+            BigDecimal saldo = empenho.getValor().subtract(empenho.getTotalPago());
+            BigDecimal aceito = BigDecimal.ZERO;
+            List<Pagamento> pagamentos = new ArrayList<>(solicitacoes.size());
+            for (Solicitacao s : solicitacoes) {
+                if (aceito.add(s.dto.getValor()).compareTo(saldo) > 0) {
+                    resultados.put(s, SituacaoIngestaoDTO.rejeitado(s.id, "A soma dos pagamentos não pode ultrapassar o valor do empenho"));
+                    continue;
+                }
+                aceito = aceito.add(s.dto.getValor());
+                
+                Pagamento pagamento = new Pagamento();
+                pagamento.setNumeroPagamento(s.dto.getNumeroPagamento());
+                pagamento.setDataPagamento(s.dto.getDataPagamento());
+                pagamento.setValor(s.dto.getValor());
+                pagamento.setObservacao(s.dto.getObservacao());
+                pagamento.setEmpenho(empenho);
+                pagamentoRepository.save(pagamento);
+                pagamentos.add(pagamento);
+                resultados.put(s, SituacaoIngestaoDTO.gravado(s.id, pagamento.getId()));
+            }
+            
+            // Um único ajuste dos totais por empenho
+            if (!pagamentos.isEmpty()) {
+                Totais.somarPago(empenho, aceito);
+                pagamentos.forEach(eventoService::pagamentoCriado);
+            }
+        });
+        return resultados;
+    }
+    
+    private static final class Solicitacao {
+        private final String id;
+        private final PagamentoDTO dto;
+        private final CompletableFuture<SituacaoIngestaoDTO> resultado = new CompletableFuture<>();
+        
+        private Solicitacao(String id, PagamentoDTO dto) {
+            this.id = id;
+            this.dto = dto;
+        }
+    }
+}
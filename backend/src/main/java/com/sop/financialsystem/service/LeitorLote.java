@@ -0,0 +1,122 @@
+package com.sop.financialsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Leitura sequencial de arquivos de importação: um registro por vez, sem carregar o arquivo inteiro
+final class LeitorLote {
+    
+    private LeitorLote() {}
+    
+    // Aceita um array JSON de objetos ou um CSV cuja primeira linha traz os nomes dos campos do DTO
+    static <T> Iterator<T> abrir(InputStream entrada, boolean csv, Class<T> tipo, ObjectMapper objectMapper) throws IOException {
+        if (csv) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            return new LeitorCsv<>(reader, tipo, objectMapper);
+        }
+        return objectMapper.readerFor(tipo).readValues(entrada);
+    }
+    
+    private static final class LeitorCsv<T> implements Iterator<T> {
+        
+        private final BufferedReader reader;
+        private final Class<T> tipo;
+        private final ObjectMapper objectMapper;
+        private final char separador;
+        private final List<String> cabecalho;
+        private String proximaLinha;
+        
+        LeitorCsv(BufferedReader reader, Class<T> tipo, ObjectMapper objectMapper) throws IOException {
+            this.reader = reader;
+            this.tipo = tipo;
+            this.objectMapper = objectMapper;
+            
+            String linhaCabecalho = reader.readLine();
+            if (linhaCabecalho == null) {
+                throw new RegraNegocioException(CodigoErro.DADOS_INVALIDOS, "Arquivo CSV vazio");
+            }
+            // Remove o BOM que alguns editores gravam no início do arquivo
+            if (!linhaCabecalho.isEmpty() && linhaCabecalho.charAt(0) == '\uFEFF') {
+                linhaCabecalho = linhaCabecalho.substring(1);
+            }
+            // Planilhas em português costumam exportar com ";"
+            this.separador = linhaCabecalho.indexOf(';') >= 0 ? ';' : ',';
+            this.cabecalho = separar(linhaCabecalho);
+            avancar();
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return proximaLinha != null;
+        }
+        
+        @Override
+        public T next() {
+            if (proximaLinha == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> valores = separar(proximaLinha);
+            avancar();
+            
+            Map<String, String> campos = new HashMap<>();
+            for (int i = 0; i < cabecalho.size() && i < valores.size(); i++) {
+                String valor = valores.get(i).trim();
+                campos.put(cabecalho.get(i).trim(), valor.isEmpty() ? null : valor);
+            }
+            return objectMapper.convertValue(campos, tipo);
+        }
+        
+        private void avancar() {
+            try {
+                do {
+                    proximaLinha = reader.readLine();
+                } while (proximaLinha != null && proximaLinha.isBlank());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        // Separa uma linha respeitando campos entre aspas (com "" como aspas escapadas)
+        private List<String> separar(String linha) {
+            List<String> campos = new ArrayList<>();
+            StringBuilder atual = new StringBuilder();
+            boolean entreAspas = false;
+            for (int i = 0; i < linha.length(); i++) {
+                char c = linha.charAt(i);
+                if (entreAspas) {
+                    if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        atual.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreAspas = false;
+                    } else {
+                        atual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreAspas = true;
+                } else if (c == separador) {
+                    campos.add(atual.toString());
+                    atual.setLength(0);
+                } else {
+                    atual.append(c);
+                }
+            }
+            campos.add(atual.toString());
+            return campos;
+        }
+    }
+}
@@ -1,113 +1,154 @@
 package com.sop.financialsystem.service;
 
 import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.dto.PagamentoFiltro;
+import com.sop.financialsystem.dto.PaginaDTO;
+import com.sop.financialsystem.dto.VersaoDTO;
+import com.sop.financialsystem.entity.Despesa;
 import com.sop.financialsystem.entity.Empenho;
 import com.sop.financialsystem.entity.Pagamento;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import com.sop.financialsystem.repository.AtualizacaoPagamento;
+import com.sop.financialsystem.repository.DespesaRepository;
 import com.sop.financialsystem.repository.EmpenhoRepository;
 import com.sop.financialsystem.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class PagamentoService {
     
+    private static final Logger log = LoggerFactory.getLogger(PagamentoService.class);
+    
     @Autowired
     private PagamentoRepository pagamentoRepository;
     
     @Autowired
     private EmpenhoRepository empenhoRepository;
     
-    public List<PagamentoDTO> findAll() {
-        return pagamentoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private FiltroNumerosService filtroNumerosService;
+    
+    public PaginaDTO<PagamentoDTO> findPage(PagamentoFiltro filtro, Long after, int limit) {
+        int limite = Paginacao.normalizarLimite(limit);
+        return Paginacao.montar(pagamentoRepository.findPagina(filtro, after, limite + 1), limite, PagamentoDTO::getId);
+    }
+    
+    public VersaoDTO versaoPagina(PagamentoFiltro filtro, Long after, int limit) {
+        return Versoes.calcular(pagamentoRepository.findVersoesPagina(filtro, after, Paginacao.normalizarLimite(limit) + 1));
+    }
+    
+    public Optional<VersaoDTO> versao(Long id) {
+        List<Object[]> linhas = pagamentoRepository.findVersaoById(id);
+        return linhas.isEmpty() ? Optional.empty() : Optional.of(Versoes.calcular(linhas));
     }
     
     public Optional<PagamentoDTO> findById(Long id) {
-        return pagamentoRepository.findById(id)
-                .map(this::convertToDTO);
+        return pagamentoRepository.findDTOById(id);
     }
     
     public List<PagamentoDTO> findByEmpenhoId(Long empenhoId) {
-        return pagamentoRepository.findByEmpenhoId(empenhoId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return pagamentoRepository.findDTOsByEmpenhoId(empenhoId);
     }
     
+    @Transactional
     public PagamentoDTO save(PagamentoDTO pagamentoDTO) {
-        if (pagamentoRepository.existsByNumeroPagamento(pagamentoDTO.getNumeroPagamento())) {
-            throw new RuntimeException("Número de pagamento já existe: " + pagamentoDTO.getNumeroPagamento());
+        if (filtroNumerosService.pagamentoPodeExistir(pagamentoDTO.getNumeroPagamento()) &&
+            pagamentoRepository.existsByNumeroPagamento(pagamentoDTO.getNumeroPagamento())) {
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de pagamento já existe: " + pagamentoDTO.getNumeroPagamento());
         }
         
+        // Bloqueia a despesa do empenho até o commit, para que pagamentos concorrentes
+        // não ultrapassem juntos o valor do empenho
+        despesaRepository.findAllByEmpenhoIdsForUpdate(List.of(pagamentoDTO.getEmpenhoId()));
+        
         Optional<Empenho> empenho = empenhoRepository.findById(pagamentoDTO.getEmpenhoId());
         if (empenho.isEmpty()) {
-            throw new RuntimeException("Empenho não encontrado com ID: " + pagamentoDTO.getEmpenhoId());
+            throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Empenho não encontrado com ID: " + pagamentoDTO.getEmpenhoId());
         }
         
-        BigDecimal valorPagamentos = pagamentoRepository.sumValorByEmpenhoId(pagamentoDTO.getEmpenhoId());
-        if (valorPagamentos == null) valorPagamentos = BigDecimal.ZERO;
-        
-        BigDecimal novoTotal = valorPagamentos.add(pagamentoDTO.getValor());
+        BigDecimal novoTotal = empenho.get().getTotalPago().add(pagamentoDTO.getValor());
         if (novoTotal.compareTo(empenho.get().getValor()) > 0) {
-            throw new RuntimeException("A soma dos pagamentos não pode ultrapassar o valor do empenho");
+            throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, "A soma dos pagamentos não pode ultrapassar o valor do empenho");
         }
         
         Pagamento pagamento = convertToEntity(pagamentoDTO);
         pagamento.setEmpenho(empenho.get());
         pagamento = pagamentoRepository.save(pagamento);
+        
+        // Atualiza os totais materializados do empenho e da despesa na mesma transação
+        Totais.somarPago(empenho.get(), pagamentoDTO.getValor());
+        eventoService.pagamentoCriado(pagamento);
         return convertToDTO(pagamento);
     }
     
+    @Transactional
     public PagamentoDTO update(Long id, PagamentoDTO pagamentoDTO) {
-        Optional<Pagamento> existingPagamento = pagamentoRepository.findById(id);
-        if (existingPagamento.isEmpty()) {
-            throw new RuntimeException("Pagamento não encontrado com ID: " + id);
+        Long newEmpenhoId = pagamentoDTO.getEmpenhoId();
+        Optional<Long> empenhoAtualId = bloquearDespesas(id, newEmpenhoId);
+        
+        // Com as despesas bloqueadas, uma consulta traz o pagamento, a unicidade do número e o empenho de destino
+        Optional<AtualizacaoPagamento> atualizacao = empenhoAtualId.flatMap(empenhoId ->
+                pagamentoRepository.findParaAtualizacao(id, pagamentoDTO.getNumeroPagamento(), newEmpenhoId));
+        if (atualizacao.isEmpty()) {
+            throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Pagamento não encontrado com ID: " + id);
         }
 
-        Pagamento pagamento = existingPagamento.get();
+        Pagamento pagamento = atualizacao.get().getPagamento();
+        verificarEmpenhoAtual(empenhoAtualId.get(), pagamento);
 
-        // Verifica se o novo número de pagamento já existe (se for diferente do atual)
-        if (!pagamento.getNumeroPagamento().equals(pagamentoDTO.getNumeroPagamento()) &&
-            pagamentoRepository.existsByNumeroPagamento(pagamentoDTO.getNumeroPagamento())) {
-            throw new RuntimeException("Número de pagamento já existe: " + pagamentoDTO.getNumeroPagamento());
+        // Verifica se o novo número de pagamento já pertence a outro pagamento
+        if (atualizacao.get().isNumeroEmUso()) {
+            throw new RegraNegocioException(CodigoErro.NUMERO_DUPLICADO, "Número de pagamento já existe: " + pagamentoDTO.getNumeroPagamento());
         }
 
+        Despesa despesaAnterior = pagamento.getEmpenho().getDespesa();
+        LocalDate dataAnterior = pagamento.getDataPagamento();
+        
         // Verificar e atualizar o empenho, se necessário
-        Long newEmpenhoId = pagamentoDTO.getEmpenhoId();
         if (newEmpenhoId != null && !newEmpenhoId.equals(pagamento.getEmpenho().getId())) {
-            Optional<Empenho> newEmpenho = empenhoRepository.findById(newEmpenhoId);
+            Optional<Empenho> newEmpenho = Optional.ofNullable(atualizacao.get().getNovoEmpenho());
             if (newEmpenho.isEmpty()) {
-                throw new RuntimeException("Empenho não encontrado com ID: " + newEmpenhoId);
+                throw new RegraNegocioException(CodigoErro.NAO_ENCONTRADO, "Empenho não encontrado com ID: " + newEmpenhoId);
             }
 
-            // Recalculate totals
-            BigDecimal oldValorPagamentos = pagamentoRepository.sumValorByEmpenhoId(pagamento.getEmpenho().getId());
-            if (oldValorPagamentos == null) oldValorPagamentos = BigDecimal.ZERO;
-            BigDecimal adjustedOldTotal = oldValorPagamentos.subtract(pagamento.getValor());
-
-            BigDecimal newValorPagamentos = pagamentoRepository.sumValorByEmpenhoId(newEmpenhoId);
-            if (newValorPagamentos == null) newValorPagamentos = BigDecimal.ZERO;
-            BigDecimal novoTotal = newValorPagamentos.add(pagamentoDTO.getValor());
-
+            // Validate against the new empenho's materialized total
+            BigDecimal novoTotal = newEmpenho.get().getTotalPago().add(pagamentoDTO.getValor());
             if (novoTotal.compareTo(newEmpenho.get().getValor()) > 0) {
-                throw new RuntimeException("A soma dos pagamentos não pode ultrapassar o valor do novo empenho");
+                throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, "A soma dos pagamentos não pode ultrapassar o valor do novo empenho");
             }
 
+            // Move the amount between the empenhos (and their despesas)
+            Totais.somarPago(pagamento.getEmpenho(), pagamento.getValor().negate());
+            Totais.somarPago(newEmpenho.get(), pagamentoDTO.getValor());
+
             // Update the empenho relationship and sync empenhoId
             pagamento.setEmpenho(newEmpenho.get());
         } else {
             // Validate with existing empenho
-            BigDecimal valorPagamentos = pagamentoRepository.sumValorByEmpenhoId(pagamento.getEmpenho().getId());
-            if (valorPagamentos == null) valorPagamentos = BigDecimal.ZERO;
-            BigDecimal novoTotal = valorPagamentos.subtract(pagamento.getValor()).add(pagamentoDTO.getValor());
+            BigDecimal diferenca = pagamentoDTO.getValor().subtract(pagamento.getValor());
+            BigDecimal novoTotal = pagamento.getEmpenho().getTotalPago().add(diferenca);
             if (novoTotal.compareTo(pagamento.getEmpenho().getValor()) > 0) {
-                throw new RuntimeException("A soma dos pagamentos não pode ultrapassar o valor do empenho");
+                throw new RegraNegocioException(CodigoErro.VALOR_EXCEDIDO, "A soma dos pagamentos não pode ultrapassar o valor do empenho");
             }
+            Totais.somarPago(pagamento.getEmpenho(), diferenca);
         }
 
         // Update other fields
@@ -117,15 +158,54 @@ public class PagamentoService {
         pagamento.setObservacao(pagamentoDTO.getObservacao());
 
         // Save and return
-   System.out.println("Before update: pagamento.empenhoId=" + pagamento.getEmpenho().getId());
-pagamento = pagamentoRepository.save(pagamento);
-System.out.println("After update: pagamento.empenhoId=" + pagamento.getEmpenho().getId());
-        System.out.println("Updated Pagamento: id=" + pagamento.getId() + ", empenhoId=" + pagamento.getEmpenho().getId());
+        pagamento = pagamentoRepository.save(pagamento);
+        if (!pagamento.getEmpenho().getDespesa().getId().equals(despesaAnterior.getId())) {
+            eventoService.pagamentoTransferido(pagamento, despesaAnterior, dataAnterior);
+        } else {
+            eventoService.pagamentoAtualizado(pagamento, dataAnterior);
+        }
+        log.debug("Pagamento {} atualizado: empenhoId={}, valor={}", id, pagamento.getEmpenho().getId(), pagamento.getValor());
         return convertToDTO(pagamento);
     }
     
+    @Transactional
     public void deleteById(Long id) {
-        pagamentoRepository.deleteById(id);
+        findByIdForUpdate(id).ifPresent(pagamento -> {
+            Totais.somarPago(pagamento.getEmpenho(), pagamento.getValor().negate());
+            eventoService.pagamentoExcluido(pagamento);
+            pagamentoRepository.delete(pagamento);
+        });
+    }
+    
+    // Bloqueia as despesas do empenho atual do pagamento e do empenho de destino (se houver),
+    // garantindo que os valores lidos em seguida não mudem até o commit. Retorna o empenho atual
+    private Optional<Long> bloquearDespesas(Long id, Long novoEmpenhoId) {
+        Optional<Long> empenhoAtualId = pagamentoRepository.findEmpenhoIdById(id);
+        if (empenhoAtualId.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        Set<Long> empenhoIds = new HashSet<>();
+        empenhoIds.add(empenhoAtualId.get());
+        if (novoEmpenhoId != null) {
+            empenhoIds.add(novoEmpenhoId);
+        }
+        despesaRepository.findAllByEmpenhoIdsForUpdate(empenhoIds);
+        return empenhoAtualId;
+    }
+    
+    private Optional<Pagamento> findByIdForUpdate(Long id) {
+        Optional<Long> empenhoAtualId = bloquearDespesas(id, null);
+        Optional<Pagamento> pagamento = empenhoAtualId.flatMap(empenhoId -> pagamentoRepository.findById(id));
+        pagamento.ifPresent(p -> verificarEmpenhoAtual(empenhoAtualId.get(), p));
+        return pagamento;
+    }
+    
+    private void verificarEmpenhoAtual(Long empenhoBloqueadoId, Pagamento pagamento) {
+        if (!empenhoBloqueadoId.equals(pagamento.getEmpenhoId())) {
+            // O pagamento foi movido para outro empenho entre a leitura e o bloqueio
+            throw new RegraNegocioException(CodigoErro.ALTERACAO_CONCORRENTE, "Pagamento alterado por outra operação, tente novamente");
+        }
     }
     
     private PagamentoDTO convertToDTO(Pagamento pagamento) {
@@ -0,0 +1,26 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.PaginaDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class Paginacao {
+    
+    static final int LIMITE_MAXIMO = 500;
+    
+    private Paginacao() {}
+    
+    static int normalizarLimite(int limit) {
+        return Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+    }
+    
+    // Recebe até "limite + 1" itens: o excedente indica que existe próxima página
+    static <T> PaginaDTO<T> montar(List<T> itens, int limite, Function<T, Long> cursor) {
+        if (itens.size() <= limite) {
+            return new PaginaDTO<>(itens, null);
+        }
+        List<T> pagina = itens.subList(0, limite);
+        return new PaginaDTO<>(pagina, cursor.apply(pagina.get(limite - 1)));
+    }
+}
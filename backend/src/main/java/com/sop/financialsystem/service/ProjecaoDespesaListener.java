@@ -0,0 +1,48 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.EventoDominio;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Agenda a projeção das despesas que receberam eventos, uma única vez por transação e só após o commit
+@Component
+public class ProjecaoDespesaListener {
+    
+    // Lazy: o listener é criado junto com o EntityManagerFactory, do qual o serviço depende
+    @Autowired
+    @Lazy
+    private ProjecaoDespesaService projecaoDespesaService;
+    
+    @PostPersist
+    public void eventoRegistrado(EventoDominio evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            projecaoDespesaService.agendar(Set.of(evento.getDespesaId()));
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Set<Long> despesaIds = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (despesaIds == null) {
+            Set<Long> pendentes = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, pendentes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProjecaoDespesaListener.this);
+                    if (status == STATUS_COMMITTED) {
+                        projecaoDespesaService.agendar(pendentes);
+                    }
+                }
+            });
+            despesaIds = pendentes;
+        }
+        despesaIds.add(evento.getDespesaId());
+    }
+}
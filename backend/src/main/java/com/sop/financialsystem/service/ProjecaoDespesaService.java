@@ -0,0 +1,397 @@
+package com.sop.financialsystem.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.EventoDominio;
+import com.sop.financialsystem.entity.MarcaProcessamento;
+import com.sop.financialsystem.entity.ResumoDespesa;
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.EventoDominioRepository;
+import com.sop.financialsystem.repository.MarcaProcessamentoRepository;
+import com.sop.financialsystem.repository.PagamentoRepository;
+import com.sop.financialsystem.repository.ResumoDespesaRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Mantém a projeção ResumoDespesa a partir do log de eventos. Todo o trabalho roda em uma única
+// thread, de modo que duas projeções nunca disputam a mesma linha; como as escritas de uma despesa
+// são serializadas pelo bloqueio da despesa e o id do evento sai da sequência sob esse bloqueio, seus
+// eventos chegam ao log em ordem crescente de id. A varredura de pendências parte da marca gravada em
+// marca_processamento, de modo que eventos de um período com a aplicação parada ainda são projetados
+@Service
+public class ProjecaoDespesaService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProjecaoDespesaService.class);
+    
+    // Despesas por transação na varredura, na carga inicial e na reconstrução
+    private static final int TAMANHO_LOTE = 500;
+    
+    static final String MARCA = "projecao-despesas";
+    
+    // Ponto de partida da primeira varredura: todo o log é conferido uma vez
+    private static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    @Autowired
+    private EventoDominioRepository eventoRepository;
+    
+    @Autowired
+    private ResumoDespesaRepository resumoRepository;
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private MarcaProcessamentoRepository marcaRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Margem para transações ainda não confirmadas: a varredura sempre relê ao menos esse período
+    @Value("${app.projecao.janela-varredura:PT1H}")
+    private Duration janelaVarredura;
+    
+    @Value("${app.projecao.carga-inicial:true}")
+    private boolean cargaInicial;
+    
+    private final ThreadPoolExecutor executor;
+    
+    public ProjecaoDespesaService(@Value("${app.projecao.fila:10000}") int capacidadeFila) {
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(capacidadeFila), r -> new Thread(r, "projecao-despesas"));
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+    
+    // Chamado após o commit das escritas; com a fila cheia o trabalho é descartado e fica para a varredura
+    public void agendar(Collection<Long> despesaIds) {
+        List<Long> ids = new ArrayList<>(despesaIds);
+        try {
+            executor.execute(() -> executar("projeção", () -> projetar(ids)));
+        } catch (RejectedExecutionException e) {
+            log.debug("Fila de projeção cheia, {} despesa(s) ficam para a varredura", ids.size());
+        }
+    }
+    
+    // Recupera eventos não projetados (fila cheia, falha após o commit, reinício da aplicação)
+    @Scheduled(fixedDelayString = "${app.projecao.varredura-ms:60000}", initialDelayString = "${app.projecao.varredura-ms:60000}")
+    public void varrer() {
+        try {
+            executor.execute(() -> executar("varredura", this::projetarPendentes));
+        } catch (RejectedExecutionException e) {
+            log.debug("Fila de projeção cheia, varredura adiada");
+        }
+    }
+    
+    // Na subida: se o log ainda não existe, registra uma fotografia de cada despesa existente
+    // (as projeções agendadas por esses eventos preenchem o modelo de leitura); depois, varre pendências
+    // desde a marca, inclusive as do período em que a aplicação esteve parada
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        executor.execute(() -> executar("carga inicial do log", () -> {
+            if (cargaInicial && eventoRepository.count() == 0) {
+                registrarDespesasExistentes();
+            }
+            projetarPendentes();
+        }));
+    }
+    
+    // Descarta a projeção e a refaz reproduzindo todo o log; retorna o número de despesas projetadas
+    public long reconstruir() {
+        Future<Long> resultado = executor.submit(() -> transactionTemplate.execute(status -> reproduzirLog()));
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reconstrução da projeção interrompida");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Falha na reconstrução da projeção: " + e.getCause().getMessage());
+        }
+    }
+    
+    private void executar(String tarefa, Runnable trabalho) {
+        try {
+            trabalho.run();
+        } catch (RuntimeException e) {
+            log.error("Falha na {} de despesas", tarefa, e);
+        }
+    }
+    
+    // Confere os eventos registrados desde a marca (no mínimo, a janela). A marca só avança depois de
+    // todos os lotes projetados: uma falha faz a próxima varredura repetir o mesmo período
+    private void projetarPendentes() {
+        LocalDateTime agora = LocalDateTime.now();
+        MarcaProcessamento marca = marcaRepository.findById(MARCA)
+            .orElseGet(() -> new MarcaProcessamento(MARCA, INICIO, 0L));
+        LocalDateTime janela = agora.minus(janelaVarredura);
+        LocalDateTime desde = marca.getPosicao().isBefore(janela) ? marca.getPosicao() : janela;
+        
+        List<Long> pendentes = eventoRepository.findDespesaIdsPendentes(desde);
+        for (int inicio = 0; inicio < pendentes.size(); inicio += TAMANHO_LOTE) {
+            projetar(pendentes.subList(inicio, Math.min(inicio + TAMANHO_LOTE, pendentes.size())));
+        }
+        if (!pendentes.isEmpty()) {
+            log.info("Projeção de despesas: {} despesa(s) atualizadas pela varredura", pendentes.size());
+        }
+        
+        // Eventos anteriores à janela estavam confirmados e foram conferidos; os dela são relidos na próxima
+        if (janela.isAfter(marca.getPosicao())) {
+            marca.setPosicao(janela);
+            marca.setAtualizadoEm(LocalDateTime.now());
+            marcaRepository.save(marca);
+        }
+    }
+    
+    private void projetar(List<Long> despesaIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, ResumoDespesa> resumos = new HashMap<>();
+            resumoRepository.findAllById(despesaIds).forEach(r -> resumos.put(r.getDespesaId(), r));
+            
+            // Uma consulta para os eventos de todas as despesas; os já aplicados são filtrados abaixo
+            long apos = despesaIds.stream()
+                .mapToLong(id -> resumos.containsKey(id) ? resumos.get(id).getUltimoEvento() : 0L)
+                .min()
+                .orElse(0L);
+            
+            Map<Long, ResumoDespesa> projetados = new HashMap<>(resumos);
+            Set<Long> recalcular = new HashSet<>();
+            for (EventoDominio evento : eventoRepository.findByDespesaIdsApos(despesaIds, apos)) {
+                Long despesaId = evento.getDespesaId();
+                ResumoDespesa resumo = projetados.get(despesaId);
+                if (resumo != null && evento.getId() <= resumo.getUltimoEvento()) {
+                    continue;
+                }
+                projetados.put(despesaId, aplicar(resumo, evento, recalcular));
+            }
+            
+            projetados.forEach((despesaId, resumo) -> {
+                boolean existente = resumos.containsKey(despesaId);
+                if (resumo == null) {
+                    if (existente) {
+                        resumoRepository.delete(resumos.get(despesaId));
+                    }
+                } else {
+                    if (recalcular.contains(despesaId)) {
+                        resumo.setDataUltimoPagamento(pagamentoRepository.findUltimaDataPagamentoByDespesaId(despesaId));
+                    }
+                    if (!existente) {
+                        entityManager.persist(resumo);
+                    }
+                }
+            });
+        });
+    }
+    
+    private void registrarDespesasExistentes() {
+        long total = transactionTemplate.execute(status -> {
+            long registradas = 0;
+            try (Stream<Object[]> despesas = despesaRepository.streamComContagens()) {
+                Iterator<Object[]> linhas = despesas.iterator();
+                while (linhas.hasNext()) {
+                    Object[] linha = linhas.next();
+                    eventoService.despesaImportada((Despesa) linha[0], (Long) linha[1], (Long) linha[2], (LocalDate) linha[3]);
+                    if (++registradas % TAMANHO_LOTE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            }
+            return registradas;
+        });
+        if (total > 0) {
+            log.info("Log de eventos iniciado com {} despesa(s) existentes", total);
+        }
+    }
+    
+    // Os eventos vêm agrupados por despesa: só uma linha da projeção fica em memória por vez
+    private long reproduzirLog() {
+        resumoRepository.deleteAllInBatch();
+        long projetadas = 0;
+        ResumoDespesa atual = null;
+        Long despesaAtual = null;
+        Set<Long> recalcular = new HashSet<>();
+        
+        try (Stream<EventoDominio> eventos = eventoRepository.streamParaReconstrucao()) {
+            Iterator<EventoDominio> iterador = eventos.iterator();
+            while (iterador.hasNext()) {
+                EventoDominio evento = iterador.next();
+                if (despesaAtual != null && !despesaAtual.equals(evento.getDespesaId())) {
+                    projetadas += gravarReconstruida(despesaAtual, atual, recalcular);
+                    atual = null;
+                    if (projetadas % TAMANHO_LOTE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                despesaAtual = evento.getDespesaId();
+                atual = aplicar(atual, evento, recalcular);
+            }
+        }
+        if (despesaAtual != null) {
+            projetadas += gravarReconstruida(despesaAtual, atual, recalcular);
+        }
+        log.info("Projeção de despesas reconstruída: {} despesa(s)", projetadas);
+        return projetadas;
+    }
+    
+    private int gravarReconstruida(Long despesaId, ResumoDespesa resumo, Set<Long> recalcular) {
+        if (resumo == null) {
+            return 0; // despesa excluída ou arquivada
+        }
+        if (recalcular.remove(despesaId)) {
+            resumo.setDataUltimoPagamento(pagamentoRepository.findUltimaDataPagamentoByDespesaId(despesaId));
+        }
+        entityManager.persist(resumo);
+        return 1;
+    }
+    
+    // Aplica um evento à linha da despesa (null se ainda não projetada); retorna null se a despesa foi excluída.
+    // Quando o último pagamento pode ter sido removido, a despesa entra em "recalcular"
+    private ResumoDespesa aplicar(ResumoDespesa resumo, EventoDominio evento, Set<Long> recalcular) {
+        String tipo = evento.getTipo();
+        if (EventoDominio.DESPESA_EXCLUIDA.equals(tipo) || EventoDominio.DESPESA_ARQUIVADA.equals(tipo)) {
+            return null;
+        }
+        if (resumo == null && !EventoDominio.DESPESA_CRIADA.equals(tipo) && !EventoDominio.DESPESA_IMPORTADA.equals(tipo)) {
+            log.warn("Evento {} ({}) sem despesa projetada: {}; reconstrua a projeção", evento.getId(), tipo, evento.getDespesaId());
+            return null;
+        }
+        if (resumo == null) {
+            resumo = new ResumoDespesa();
+            resumo.setDespesaId(evento.getDespesaId());
+        }
+        
+        JsonNode dados = lerDados(evento);
+        switch (tipo) {
+            case EventoDominio.DESPESA_IMPORTADA:
+                copiarDespesa(resumo, dados);
+                resumo.setQuantidadeEmpenhos(dados.path(EventoService.QUANTIDADE_EMPENHOS).asInt());
+                resumo.setQuantidadePagamentos(dados.path(EventoService.QUANTIDADE_PAGAMENTOS).asInt());
+                resumo.setDataUltimoPagamento(data(dados, EventoService.DATA_ULTIMO_PAGAMENTO));
+                break;
+            case EventoDominio.DESPESA_CRIADA:
+            case EventoDominio.DESPESA_ATUALIZADA:
+                copiarDespesa(resumo, dados);
+                break;
+            case EventoDominio.EMPENHO_CRIADO:
+                resumo.setQuantidadeEmpenhos(resumo.getQuantidadeEmpenhos() + 1);
+                break;
+            case EventoDominio.EMPENHO_EXCLUIDO:
+                resumo.setQuantidadeEmpenhos(resumo.getQuantidadeEmpenhos() - 1);
+                break;
+            case EventoDominio.PAGAMENTO_CRIADO:
+                incluirPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO));
+                break;
+            case EventoDominio.PAGAMENTO_EXCLUIDO:
+                removerPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO), recalcular);
+                break;
+            case EventoDominio.PAGAMENTO_ATUALIZADO:
+                removerPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO_ANTERIOR), recalcular);
+                incluirPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO));
+                break;
+            case EventoDominio.PAGAMENTO_TRANSFERIDO:
+                if (dados.path(EventoService.ORIGEM).asBoolean()) {
+                    removerPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO_ANTERIOR), recalcular);
+                } else {
+                    incluirPagamento(resumo, data(dados, EventoService.DATA_PAGAMENTO));
+                }
+                break;
+            default:
+                // EMPENHO_ATUALIZADO, DESPESA_RECONCILIADA e DESPESA_VENCIDA alteram apenas os totais, copiados abaixo
+                break;
+        }
+        
+        resumo.setValor(dados.path(EventoService.VALOR_DESPESA).decimalValue());
+        resumo.setTotalEmpenhado(dados.path(EventoService.TOTAL_EMPENHADO).decimalValue());
+        resumo.setTotalPago(dados.path(EventoService.TOTAL_PAGO).decimalValue());
+        resumo.setStatus(dados.path(EventoService.STATUS).asText());
+        resumo.setUltimoEvento(evento.getId());
+        return resumo;
+    }
+    
+    private void copiarDespesa(ResumoDespesa resumo, JsonNode dados) {
+        resumo.setNumeroProtocolo(dados.path(EventoService.NUMERO_PROTOCOLO).asText());
+        resumo.setTipoDespesa(dados.path(EventoService.TIPO_DESPESA).asText());
+        resumo.setDataProtocolo(LocalDateTime.parse(dados.path(EventoService.DATA_PROTOCOLO).asText()));
+        resumo.setDataVencimento(LocalDateTime.parse(dados.path(EventoService.DATA_VENCIMENTO).asText()));
+        resumo.setCredor(dados.path(EventoService.CREDOR).asText());
+        resumo.setDescricao(dados.path(EventoService.DESCRICAO).asText());
+    }
+    
+    private void incluirPagamento(ResumoDespesa resumo, LocalDate data) {
+        resumo.setQuantidadePagamentos(resumo.getQuantidadePagamentos() + 1);
+        if (data != null && (resumo.getDataUltimoPagamento() == null || data.isAfter(resumo.getDataUltimoPagamento()))) {
+            resumo.setDataUltimoPagamento(data);
+        }
+    }
+    
+    // A data do último pagamento não pode ser desfeita só com o evento: se o pagamento removido era
+    // o mais recente, ela é relida dos pagamentos ao final do lote
+    private void removerPagamento(ResumoDespesa resumo, LocalDate data, Set<Long> recalcular) {
+        resumo.setQuantidadePagamentos(resumo.getQuantidadePagamentos() - 1);
+        if (data != null && data.equals(resumo.getDataUltimoPagamento())) {
+            recalcular.add(resumo.getDespesaId());
+        }
+    }
+    
+    private LocalDate data(JsonNode dados, String campo) {
+        JsonNode valor = dados.path(campo);
+        return valor.isTextual() ? LocalDate.parse(valor.asText()) : null;
+    }
+    
+    private JsonNode lerDados(EventoDominio evento) {
+        try {
+            return objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readTree(evento.getDados());
+        } catch (IOException e) {
+            throw new RuntimeException("Evento " + evento.getId() + " com dados inválidos: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.EmpenhoRepository;
+import com.sop.financialsystem.repository.PagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Verifica os totais materializados (total_empenhado / total_pago) contra as somas reais,
+// nos moldes das consultas de integridade de database/scripts.sql. O preenchimento inicial, em bases
+// anteriores aos totais, é feito na subida por db/totais.sql, antes de a aplicação aceitar requisições
+@Service
+public class ReconciliacaoTotaisService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReconciliacaoTotaisService.class);
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private EmpenhoRepository empenhoRepository;
+    
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Value("${app.reconciliacao.corrigir:true}")
+    private boolean corrigir;
+    
+    @Scheduled(cron = "${app.reconciliacao.cron:0 0 3 * * *}")
+    @Transactional
+    public void reconciliar() {
+        List<Long> empenhosDivergentes = empenhoRepository.findIdsComTotalPagoDivergente();
+        List<Long> despesasDivergentes = despesaRepository.findIdsComTotaisDivergentes();
+        
+        if (empenhosDivergentes.isEmpty() && despesasDivergentes.isEmpty()) {
+            log.info("Reconciliação de totais: nenhuma divergência encontrada");
+            return;
+        }
+        
+        log.warn("Reconciliação de totais: {} empenho(s) e {} despesa(s) com totais divergentes",
+                empenhosDivergentes.size(), despesasDivergentes.size());
+        if (!corrigir) {
+            return;
+        }
+        
+        // Bloqueia as despesas envolvidas (como nas escritas) antes de recalcular as somas, para não
+        // competir com empenhos e pagamentos em andamento. Um único conjunto em ordem de id: dois
+        // bloqueios seguidos poderiam pegar um id menor depois de um maior e travar com uma escrita
+        List<Despesa> bloqueadas = despesaRepository.findAllByIdOuEmpenhoIdsForUpdate(despesasDivergentes,
+                empenhosDivergentes);
+        for (Empenho empenho : empenhoRepository.findAllById(empenhosDivergentes)) {
+            empenho.setTotalPago(valorOuZero(pagamentoRepository.sumValorByEmpenhoId(empenho.getId())));
+        }
+        Set<Long> recalcular = new HashSet<>(despesasDivergentes);
+        for (Despesa despesa : bloqueadas) {
+            if (!recalcular.contains(despesa.getId())) {
+                continue;
+            }
+            despesa.setTotalEmpenhado(valorOuZero(empenhoRepository.sumValorByDespesaId(despesa.getId())));
+            despesa.setTotalPago(valorOuZero(pagamentoRepository.sumValorByDespesaId(despesa.getId())));
+            StatusDespesa.atualizar(despesa);
+            eventoService.despesaReconciliada(despesa);
+        }
+        log.info("Reconciliação de totais: divergências corrigidas");
+    }
+    
+    private BigDecimal valorOuZero(BigDecimal valor) {
+        return valor != null ? valor : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.Despesa;
+
+import java.math.BigDecimal;
+
+final class StatusDespesa {
+    
+    static final String AGUARDANDO_EMPENHO = "Aguardando Empenho";
+    static final String PARCIALMENTE_EMPENHADA = "Parcialmente Empenhada";
+    static final String AGUARDANDO_PAGAMENTO = "Aguardando Pagamento";
+    static final String PARCIALMENTE_PAGA = "Parcialmente Paga";
+    static final String PAGA = "Paga";
+    
+    private StatusDespesa() {}
+    
+    // Recalcula o status a partir dos totais materializados (O(1), sem consultas)
+    static void atualizar(Despesa despesa) {
+        despesa.setStatus(calcular(despesa.getValor(), despesa.getTotalEmpenhado(), despesa.getTotalPago()));
+    }
+    
+    static String calcular(BigDecimal valorDespesa, BigDecimal valorEmpenhos, BigDecimal valorPagamentos) {
+        if (valorEmpenhos == null) valorEmpenhos = BigDecimal.ZERO;
+        if (valorPagamentos == null) valorPagamentos = BigDecimal.ZERO;
+        
+        if (valorEmpenhos.compareTo(BigDecimal.ZERO) == 0) {
+            return AGUARDANDO_EMPENHO;
+        } else if (valorEmpenhos.compareTo(valorDespesa) < 0) {
+            return PARCIALMENTE_EMPENHADA;
+        } else if (valorPagamentos.compareTo(BigDecimal.ZERO) == 0) {
+            return AGUARDANDO_PAGAMENTO;
+        } else if (valorPagamentos.compareTo(valorDespesa) < 0) {
+            return PARCIALMENTE_PAGA;
+        } else {
+            return PAGA;
+        }
+    }
+}
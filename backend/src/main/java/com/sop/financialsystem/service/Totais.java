@@ -0,0 +1,26 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.Empenho;
+
+import java.math.BigDecimal;
+
+// Atualização incremental dos totais materializados; deve ser chamada com a despesa bloqueada
+final class Totais {
+    
+    private Totais() {}
+    
+    // Aplica a variação no total empenhado da despesa e recalcula seu status
+    static void somarEmpenhado(Despesa despesa, BigDecimal valor) {
+        despesa.setTotalEmpenhado(despesa.getTotalEmpenhado().add(valor));
+        StatusDespesa.atualizar(despesa);
+    }
+    
+    // Aplica a variação no total pago do empenho e da despesa e recalcula o status da despesa
+    static void somarPago(Empenho empenho, BigDecimal valor) {
+        empenho.setTotalPago(empenho.getTotalPago().add(valor));
+        Despesa despesa = empenho.getDespesa();
+        despesa.setTotalPago(despesa.getTotalPago().add(valor));
+        StatusDespesa.atualizar(despesa);
+    }
+}
@@ -0,0 +1,160 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.entity.Despesa;
+import com.sop.financialsystem.entity.MarcaProcessamento;
+import com.sop.financialsystem.repository.DespesaRepository;
+import com.sop.financialsystem.repository.MarcaProcessamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Registra um evento DESPESA_VENCIDA para cada despesa que passa do vencimento sem estar paga.
+// A varredura é incremental: parte da marca gravada em marca_processamento e lê só as despesas
+// que venceram desde a última execução. Despesas gravadas com vencimento já varrido (cadastro
+// atrasado, troca de data) são alertadas na própria escrita, por verificarEscrita
+@Service
+public class VencimentoDespesasService {
+    
+    private static final Logger log = LoggerFactory.getLogger(VencimentoDespesasService.class);
+    
+    static final String MARCA = "vencimento-despesas";
+    
+    // Ponto de partida da primeira execução: todas as despesas já vencidas são alertadas uma vez
+    private static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    @Autowired
+    private DespesaRepository despesaRepository;
+    
+    @Autowired
+    private MarcaProcessamentoRepository marcaRepository;
+    
+    @Autowired
+    private EventoService eventoService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.vencimentos.lote:500}")
+    private int lote;
+    
+    private Timer duracao;
+    private Counter alertas;
+    
+    // Até onde a varredura em andamento (ou a última) vai; escritas com vencimento até aqui não
+    // seriam mais vistas por ela. Alertar nos dois lados pode repetir o alerta, nunca perdê-lo
+    private volatile LocalDateTime limiteVarrido;
+    
+    @PostConstruct
+    public void iniciar() {
+        duracao = Timer.builder("despesas.vencimentos.execucao")
+            .description("Duração da varredura de despesas vencidas")
+            .register(meterRegistry);
+        alertas = Counter.builder("despesas.vencimentos.alertas")
+            .description("Eventos DESPESA_VENCIDA registrados")
+            .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarMarca() {
+        marcaRepository.findById(MARCA).ifPresent(marca -> limiteVarrido = marca.getPosicao());
+    }
+    
+    @Scheduled(cron = "${app.vencimentos.cron:0 */10 * * * *}")
+    public void verificarAgendado() {
+        try {
+            verificar();
+        } catch (RuntimeException e) {
+            // A marca fica no último lote gravado; a próxima execução continua dali
+            log.error("Falha na verificação de despesas vencidas", e);
+        }
+    }
+    
+    // Avança a marca até agora, em lotes de uma transação cada. Retorna quantas despesas foram alertadas
+    public long verificar() {
+        return duracao.record(this::varrer);
+    }
+    
+    private long varrer() {
+        LocalDateTime agora = LocalDateTime.now();
+        limiteVarrido = agora;
+        
+        MarcaProcessamento marca = marcaRepository.findById(MARCA)
+            .orElseGet(() -> new MarcaProcessamento(MARCA, INICIO, 0L));
+        long total = 0;
+        while (true) {
+            List<Object[]> chaves = despesaRepository.findVencidasApos(marca.getPosicao(), marca.getUltimoId(),
+                agora, StatusDespesa.PAGA, PageRequest.of(0, lote));
+            if (chaves.isEmpty()) {
+                break;
+            }
+            total += transactionTemplate.execute(status -> alertarLote(marca, chaves, agora));
+            if (chaves.size() < lote) {
+                break;
+            }
+        }
+        
+        // Tudo até "agora" foi visto: a próxima execução começa depois dele
+        marca.setPosicao(agora);
+        marca.setUltimoId(Long.MAX_VALUE);
+        marca.setAtualizadoEm(LocalDateTime.now());
+        marcaRepository.save(marca);
+        
+        if (total > 0) {
+            log.info("{} despesa(s) vencida(s) sem pagamento integral", total);
+        }
+        return total;
+    }
+    
+    // Alerta um lote e grava a marca na mesma transação, para que uma falha não repita nem pule o lote.
+    // Os eventos saem sob o bloqueio das despesas, como os das escritas: entram no log de cada despesa
+    // na ordem dos commits e com os totais atuais, não os da leitura das chaves
+    private long alertarLote(MarcaProcessamento marca, List<Object[]> chaves, LocalDateTime limite) {
+        List<Long> ids = chaves.stream().map(chave -> (Long) chave[0]).toList();
+        long alertadas = 0;
+        for (Despesa despesa : despesaRepository.findAllByIdForUpdate(ids)) {
+            // Revalida sob bloqueio: a despesa pode ter sido paga ou reagendada depois da leitura
+            if (!despesa.getDataVencimento().isAfter(limite) && !StatusDespesa.PAGA.equals(despesa.getStatus())) {
+                alertar(despesa);
+                alertadas++;
+            }
+        }
+        
+        Object[] ultima = chaves.get(chaves.size() - 1);
+        marca.setPosicao((LocalDateTime) ultima[1]);
+        marca.setUltimoId((Long) ultima[0]);
+        marca.setAtualizadoEm(LocalDateTime.now());
+        marcaRepository.save(marca);
+        return alertadas;
+    }
+    
+    // Chamado pelas escritas de despesa, dentro da transação delas
+    public void verificarEscrita(Despesa despesa) {
+        LocalDateTime limite = limiteVarrido;
+        if (limite != null && !despesa.getDataVencimento().isAfter(limite) &&
+            !StatusDespesa.PAGA.equals(despesa.getStatus())) {
+            alertar(despesa);
+        }
+    }
+    
+    private void alertar(Despesa despesa) {
+        eventoService.despesaVencida(despesa);
+        alertas.increment();
+    }
+}
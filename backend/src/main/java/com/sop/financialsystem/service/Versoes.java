@@ -0,0 +1,41 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.VersaoDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+// ETag e Last-Modified calculados a partir de linhas (id, marcas de versão...) lidas sem montar os DTOs
+final class Versoes {
+    
+    private Versoes() {}
+    
+    static VersaoDTO calcular(List<Object[]> linhas) {
+        MessageDigest digest = novoDigest();
+        long ultimaAlteracao = -1;
+        for (Object[] linha : linhas) {
+            digest.update(Arrays.toString(linha).getBytes(StandardCharsets.UTF_8));
+            for (Object valor : linha) {
+                if (valor instanceof LocalDateTime momento) {
+                    ultimaAlteracao = Math.max(ultimaAlteracao,
+                        momento.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+            }
+        }
+        return new VersaoDTO(HexFormat.of().formatHex(digest.digest(), 0, 16), ultimaAlteracao);
+    }
+    
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
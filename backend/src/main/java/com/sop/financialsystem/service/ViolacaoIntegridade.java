@@ -0,0 +1,38 @@
+package com.sop.financialsystem.service;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+// Classifica falhas de gravação pelo SQLSTATE, esteja a SQLException embrulhada pelo Spring (repositórios,
+// commit) ou pelo Hibernate (flush direto no EntityManager): unicidade (23505) e chave estrangeira
+// (23503; 23506 no H2), as mesmas que TratadorErros responde como conflito, e os demais erros de dados
+// (classes 22 e 23: tamanho, NOT NULL, CHECK)
+final class ViolacaoIntegridade {
+    
+    private static final String UNICIDADE = "23505";
+    private static final Set<String> CHAVE_ESTRANGEIRA = Set.of("23503", "23506");
+    
+    private ViolacaoIntegridade() {}
+    
+    static boolean unicidade(Throwable e) {
+        return UNICIDADE.equals(sqlState(e));
+    }
+    
+    static boolean chaveEstrangeira(Throwable e) {
+        return CHAVE_ESTRANGEIRA.contains(sqlState(e));
+    }
+    
+    static boolean dadosInvalidos(Throwable e) {
+        String estado = sqlState(e);
+        return estado != null && (estado.startsWith("22") || estado.startsWith("23"));
+    }
+    
+    private static String sqlState(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && sql.getSQLState() != null) {
+                return sql.getSQLState();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+-- Busca textual (GET /api/busca), aplicada na subida junto com relatorios.sql. Idempotente.
+--
+-- Os vetores de busca são colunas geradas pelo próprio banco: ficam em dia a cada INSERT/UPDATE,
+-- sem código na aplicação. Criar a coluna reescreve a tabela uma única vez (primeira subida).
+-- pg_trgm exige permissão para criar extensões na primeira execução.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Credor pesa mais que a descrição no ranking (pesos A e B)
+ALTER TABLE despesa ADD COLUMN IF NOT EXISTS busca tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('portuguese', coalesce(credor, '')), 'A') ||
+        setweight(to_tsvector('portuguese', coalesce(descricao, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_despesa_busca ON despesa USING gin (busca);
+-- Trechos no meio do nome do credor (ILIKE '%trecho%'), que a busca por palavras não encontra
+CREATE INDEX IF NOT EXISTS idx_despesa_credor_trgm ON despesa USING gin (credor gin_trgm_ops);
+
+ALTER TABLE empenho ADD COLUMN IF NOT EXISTS busca tsvector
+    GENERATED ALWAYS AS (to_tsvector('portuguese', coalesce(observacao, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_empenho_busca ON empenho USING gin (busca);
+
+ALTER TABLE pagamentos ADD COLUMN IF NOT EXISTS busca tsvector
+    GENERATED ALWAYS AS (to_tsvector('portuguese', coalesce(observacao, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_pagamentos_busca ON pagamentos USING gin (busca);
@@ -0,0 +1,13 @@
+-- Índices do log de eventos e do modelo de leitura (ProjecaoDespesaService), aplicados na subida.
+-- Idempotente; os nomes são os de database/scripts.sql, para não duplicar os de bases criadas por ele.
+--
+-- Eventos de uma despesa posteriores ao último aplicado (a cada commit e na reconstrução, que lê o log
+-- inteiro na ordem despesa_id, id) e janela recente da varredura de projeções pendentes
+CREATE INDEX IF NOT EXISTS idx_evento_dominio_despesa ON evento_dominio (despesa_id, id);
+CREATE INDEX IF NOT EXISTS idx_evento_dominio_registrado_em ON evento_dominio (registrado_em);
+
+-- Filtros das listagens paginadas por despesa_id
+CREATE INDEX IF NOT EXISTS idx_despesa_resumo_status ON despesa_resumo (status, despesa_id);
+CREATE INDEX IF NOT EXISTS idx_despesa_resumo_tipo ON despesa_resumo (tipo_despesa, despesa_id);
+CREATE INDEX IF NOT EXISTS idx_despesa_resumo_vencimento ON despesa_resumo (data_vencimento);
+CREATE INDEX IF NOT EXISTS idx_despesa_resumo_credor ON despesa_resumo (credor varchar_pattern_ops, despesa_id);
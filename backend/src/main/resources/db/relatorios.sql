@@ -0,0 +1,97 @@
+-- Views dos relatórios, aplicadas pela aplicação na subida (spring.sql.init), depois que o Hibernate
+-- cria/atualiza as tabelas. Todas as instruções são idempotentes.
+--
+-- Somas de empenhos e de pagamentos são agregadas separadamente antes de qualquer junção:
+-- juntar despesa -> empenho -> pagamentos e somar depois repete e.valor para cada pagamento.
+
+-- Totais das despesas por status, tipo e credor (dashboard). Chave única exigida pelo REFRESH CONCURRENTLY
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_totais_despesa AS
+SELECT 'STATUS:' || status AS id, 'STATUS' AS dimensao, status AS chave, COUNT(*) AS quantidade, SUM(valor) AS total
+FROM despesa GROUP BY status
+UNION ALL
+SELECT 'TIPO:' || tipo_despesa, 'TIPO', tipo_despesa, COUNT(*), SUM(valor)
+FROM despesa GROUP BY tipo_despesa
+UNION ALL
+SELECT 'CREDOR:' || credor, 'CREDOR', credor, COUNT(*), SUM(valor)
+FROM despesa GROUP BY credor;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_totais_despesa ON mv_totais_despesa(id);
+-- Maiores credores: leitura do início do índice, sem ordenar o agrupamento inteiro
+CREATE INDEX IF NOT EXISTS idx_mv_totais_despesa_total ON mv_totais_despesa(dimensao, total DESC, chave);
+
+-- Saldo a pagar das despesas não pagas por dia de vencimento: "vencidas" é a soma dos dias anteriores a hoje
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_saldo_vencimento AS
+SELECT CAST(data_vencimento AS DATE) AS dia, COUNT(*) AS quantidade, SUM(valor - total_pago) AS saldo
+FROM despesa
+WHERE status <> 'Paga'
+GROUP BY CAST(data_vencimento AS DATE);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_saldo_vencimento ON mv_saldo_vencimento(dia);
+
+-- Empenhado x pago por mês; id = ano * 100 + mês permite buscar um intervalo de meses pelo índice
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_totais_mensais AS
+SELECT COALESCE(e.ano, p.ano) * 100 + COALESCE(e.mes, p.mes) AS id,
+       COALESCE(e.ano, p.ano) AS ano,
+       COALESCE(e.mes, p.mes) AS mes,
+       COALESCE(e.total, 0) AS empenhado,
+       COALESCE(p.total, 0) AS pago
+FROM (
+    SELECT CAST(EXTRACT(YEAR FROM data_empenho) AS INTEGER) AS ano,
+           CAST(EXTRACT(MONTH FROM data_empenho) AS INTEGER) AS mes,
+           SUM(valor) AS total
+    FROM empenho
+    GROUP BY 1, 2
+) e
+FULL OUTER JOIN (
+    SELECT CAST(EXTRACT(YEAR FROM data_pagamento) AS INTEGER) AS ano,
+           CAST(EXTRACT(MONTH FROM data_pagamento) AS INTEGER) AS mes,
+           SUM(valor) AS total
+    FROM pagamentos
+    GROUP BY 1, 2
+) p ON p.ano = e.ano AND p.mes = e.mes;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_mv_totais_mensais ON mv_totais_mensais(id);
+
+-- Relatório completo de despesas (consulta ad hoc), com as somas agregadas por empenho antes da junção
+CREATE OR REPLACE VIEW vw_despesas_completas AS
+SELECT
+    d.id,
+    d.numero_protocolo,
+    d.tipo_despesa,
+    d.data_protocolo,
+    d.data_vencimento,
+    d.credor,
+    d.descricao,
+    d.valor AS valor_despesa,
+    d.status,
+    COALESCE(t.total_empenhado, 0) AS total_empenhado,
+    COALESCE(t.total_pago, 0) AS total_pago,
+    d.valor - COALESCE(t.total_empenhado, 0) AS saldo_empenhar,
+    COALESCE(t.total_empenhado, 0) - COALESCE(t.total_pago, 0) AS saldo_pagar
+FROM despesa d
+LEFT JOIN (
+    SELECT e.despesa_id, SUM(e.valor) AS total_empenhado, SUM(COALESCE(pe.total_pago, 0)) AS total_pago
+    FROM empenho e
+    LEFT JOIN (
+        SELECT empenho_id, SUM(valor) AS total_pago FROM pagamentos GROUP BY empenho_id
+    ) pe ON pe.empenho_id = e.id
+    GROUP BY e.despesa_id
+) t ON t.despesa_id = d.id;
+
+-- Controle de empenhos, com a soma dos pagamentos agregada antes da junção
+CREATE OR REPLACE VIEW vw_empenhos_detalhados AS
+SELECT
+    e.id,
+    e.numero_empenho,
+    e.data_empenho,
+    e.valor AS valor_empenho,
+    e.observacao,
+    d.numero_protocolo,
+    d.credor,
+    COALESCE(pe.total_pago, 0) AS total_pago,
+    e.valor - COALESCE(pe.total_pago, 0) AS saldo_pagar
+FROM empenho e
+INNER JOIN despesa d ON e.despesa_id = d.id
+LEFT JOIN (
+    SELECT empenho_id, SUM(valor) AS total_pago FROM pagamentos GROUP BY empenho_id
+) pe ON pe.empenho_id = e.id;
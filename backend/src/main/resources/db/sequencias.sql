@@ -0,0 +1,11 @@
+-- Sequências dos ids (ver @SequenceGenerator nas entidades), aplicado na subida. Idempotente.
+--
+-- Em bases anteriores às sequências os ids vieram de IDENTITY, e o Hibernate (ddl-auto=update) cria
+-- as sequências começando em 1: sem este ajuste os primeiros inserts repetiriam ids existentes. Cada
+-- sequência vai para depois do maior id da sua tabela e nunca recua. O otimizador pooled usa o valor
+-- lido como limite superior de um bloco de 50, daí o + 50
+SELECT setval('despesa_seq', GREATEST((SELECT last_value FROM despesa_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM despesa)));
+SELECT setval('empenho_seq', GREATEST((SELECT last_value FROM empenho_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM empenho)));
+SELECT setval('pagamento_seq', GREATEST((SELECT last_value FROM pagamento_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM pagamentos)));
+-- evento_ordem_seq (sem blocos, ver EventoDominio) substitui evento_seq, que deixa de ser usada
+SELECT setval('evento_ordem_seq', GREATEST((SELECT last_value FROM evento_ordem_seq), (SELECT COALESCE(MAX(id), 0) + 1 FROM evento_dominio)));
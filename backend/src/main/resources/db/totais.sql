@@ -0,0 +1,34 @@
+-- Preenchimento dos totais materializados (total_pago do empenho; total_empenhado, total_pago e status
+-- da despesa) em bases anteriores a eles, aplicado na subida, antes de a aplicação aceitar requisições:
+-- os limites de empenho e pagamento são conferidos contra estes totais. Idempotente.
+--
+-- Só roda enquanto o log de eventos está vazio (bases anteriores a ele também são anteriores aos
+-- totais): a partir daí as divergências são corrigidas por ReconciliacaoTotaisService, que registra o
+-- evento DESPESA_RECONCILIADA para o modelo de leitura. Mesmos comandos de database/scripts.sql,
+-- restritos às linhas divergentes
+UPDATE empenho e SET total_pago = COALESCE((SELECT SUM(p.valor) FROM pagamentos p WHERE p.empenho_id = e.id), 0)
+WHERE NOT EXISTS (SELECT 1 FROM evento_dominio)
+  AND e.total_pago IS DISTINCT FROM COALESCE((SELECT SUM(p.valor) FROM pagamentos p WHERE p.empenho_id = e.id), 0);
+
+UPDATE despesa d SET
+    total_empenhado = COALESCE((SELECT SUM(e.valor) FROM empenho e WHERE e.despesa_id = d.id), 0),
+    total_pago = COALESCE((SELECT SUM(e.total_pago) FROM empenho e WHERE e.despesa_id = d.id), 0)
+WHERE NOT EXISTS (SELECT 1 FROM evento_dominio)
+  AND (d.total_empenhado IS DISTINCT FROM COALESCE((SELECT SUM(e.valor) FROM empenho e WHERE e.despesa_id = d.id), 0)
+    OR d.total_pago IS DISTINCT FROM COALESCE((SELECT SUM(e.total_pago) FROM empenho e WHERE e.despesa_id = d.id), 0));
+
+UPDATE despesa SET status = CASE
+    WHEN total_empenhado = 0 THEN 'Aguardando Empenho'
+    WHEN total_empenhado < valor THEN 'Parcialmente Empenhada'
+    WHEN total_pago = 0 THEN 'Aguardando Pagamento'
+    WHEN total_pago < valor THEN 'Parcialmente Paga'
+    ELSE 'Paga'
+END
+WHERE NOT EXISTS (SELECT 1 FROM evento_dominio)
+  AND status IS DISTINCT FROM CASE
+    WHEN total_empenhado = 0 THEN 'Aguardando Empenho'
+    WHEN total_empenhado < valor THEN 'Parcialmente Empenhada'
+    WHEN total_pago = 0 THEN 'Aguardando Pagamento'
+    WHEN total_pago < valor THEN 'Parcialmente Paga'
+    ELSE 'Paga'
+END;
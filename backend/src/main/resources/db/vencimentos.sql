@@ -0,0 +1,8 @@
+-- Índice da varredura incremental de despesas vencidas (VencimentoDespesasService), aplicado na subida.
+-- Idempotente; mesmo nome de database/scripts.sql.
+--
+-- Cada execução lê só o intervalo de data_vencimento desde a marca, na ordem (data_vencimento, id)
+-- da própria marca, sem ordenar nem percorrer a tabela. Nome próprio: os nomes de índice valem para o
+-- schema todo, e bases criadas pelo script original já têm idx_despesas_data_vencimento, na antiga
+-- tabela despesas; com o mesmo nome o IF NOT EXISTS deixaria despesa sem o índice
+CREATE INDEX IF NOT EXISTS idx_despesa_vencimento_id ON despesa (data_vencimento, id);
@@ -0,0 +1,161 @@
+package com.sop.financialsystem.service;
+
+import com.sop.financialsystem.dto.DespesaDTO;
+import com.sop.financialsystem.dto.EmpenhoDTO;
+import com.sop.financialsystem.dto.PagamentoDTO;
+import com.sop.financialsystem.exception.CodigoErro;
+import com.sop.financialsystem.exception.RegraNegocioException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Escritas concorrentes disputando o mesmo teto de valor: com o bloqueio da despesa, a soma gravada
+// nunca passa do teto e exatamente as escritas que cabem nele são aceitas; as demais são recusadas
+// com VALOR_EXCEDIDO. H2 em modo PostgreSQL (perfil "benchmark"), que também tem SELECT ... FOR UPDATE
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:teto;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=30000"
+})
+@ActiveProfiles("benchmark")
+class TetoConcorrenteTest {
+    
+    private static final int THREADS = 16;
+    private static final int TENTATIVAS_POR_THREAD = 10;
+    
+    private static final AtomicInteger SEQUENCIA = new AtomicInteger();
+    
+    @Autowired
+    private DespesaService despesaService;
+    
+    @Autowired
+    private EmpenhoService empenhoService;
+    
+    @Autowired
+    private PagamentoService pagamentoService;
+    
+    @Autowired
+    private JdbcTemplate jdbc;
+    
+    @Test
+    void empenhosConcorrentesNaoUltrapassamOValorDaDespesa() throws Exception {
+        Long despesaId = novaDespesa(new BigDecimal("1000.00"));
+        BigDecimal valor = new BigDecimal("30.00");
+        
+        int aceitos = executarConcorrentes(() -> {
+            EmpenhoDTO dto = new EmpenhoDTO();
+            dto.setNumeroEmpenho("TETO-EMP-" + SEQUENCIA.incrementAndGet());
+            dto.setDataEmpenho(LocalDate.now());
+            dto.setValor(valor);
+            dto.setDespesaId(despesaId);
+            empenhoService.save(dto);
+        });
+        
+        BigDecimal soma = jdbc.queryForObject(
+            "SELECT COALESCE(SUM(valor), 0) FROM empenho WHERE despesa_id = ?", BigDecimal.class, despesaId);
+        BigDecimal totalEmpenhado = jdbc.queryForObject(
+            "SELECT total_empenhado FROM despesa WHERE id = ?", BigDecimal.class, despesaId);
+        
+        // 33 x 30,00 = 990,00 cabem em 1000,00; o 34º passaria do teto
+        assertEquals(33, aceitos);
+        assertEquals(0, soma.compareTo(new BigDecimal("990.00")), "soma dos empenhos: " + soma);
+        assertEquals(0, totalEmpenhado.compareTo(soma), "total materializado: " + totalEmpenhado);
+    }
+    
+    @Test
+    void pagamentosConcorrentesNaoUltrapassamOValorDoEmpenho() throws Exception {
+        Long despesaId = novaDespesa(new BigDecimal("1000.00"));
+        EmpenhoDTO empenho = new EmpenhoDTO();
+        empenho.setNumeroEmpenho("TETO-EMP-" + SEQUENCIA.incrementAndGet());
+        empenho.setDataEmpenho(LocalDate.now());
+        empenho.setValor(new BigDecimal("600.00"));
+        empenho.setDespesaId(despesaId);
+        Long empenhoId = empenhoService.save(empenho).getId();
+        BigDecimal valor = new BigDecimal("50.00");
+        
+        int aceitos = executarConcorrentes(() -> {
+            PagamentoDTO dto = new PagamentoDTO();
+            dto.setNumeroPagamento("TETO-PAG-" + SEQUENCIA.incrementAndGet());
+            dto.setDataPagamento(LocalDate.now());
+            dto.setValor(valor);
+            dto.setEmpenhoId(empenhoId);
+            pagamentoService.save(dto);
+        });
+        
+        BigDecimal soma = jdbc.queryForObject(
+            "SELECT COALESCE(SUM(valor), 0) FROM pagamentos WHERE empenho_id = ?", BigDecimal.class, empenhoId);
+        BigDecimal totalPagoEmpenho = jdbc.queryForObject(
+            "SELECT total_pago FROM empenho WHERE id = ?", BigDecimal.class, empenhoId);
+        BigDecimal totalPagoDespesa = jdbc.queryForObject(
+            "SELECT total_pago FROM despesa WHERE id = ?", BigDecimal.class, despesaId);
+        
+        // 12 x 50,00 fecham exatamente os 600,00 do empenho
+        assertEquals(12, aceitos);
+        assertEquals(0, soma.compareTo(new BigDecimal("600.00")), "soma dos pagamentos: " + soma);
+        assertEquals(0, totalPagoEmpenho.compareTo(soma), "total pago do empenho: " + totalPagoEmpenho);
+        assertEquals(0, totalPagoDespesa.compareTo(soma), "total pago da despesa: " + totalPagoDespesa);
+    }
+    
+    private Long novaDespesa(BigDecimal valor) {
+        DespesaDTO dto = new DespesaDTO();
+        dto.setNumeroProtocolo("TETO-" + SEQUENCIA.incrementAndGet());
+        dto.setTipoDespesa("Outros");
+        dto.setDataProtocolo(LocalDateTime.now());
+        dto.setDataVencimento(LocalDateTime.now().plusDays(30));
+        dto.setCredor("Credor do teste");
+        dto.setDescricao("Teto concorrente");
+        dto.setValor(valor);
+        return despesaService.save(dto).getId();
+    }
+    
+    // Dispara todas as tentativas juntas e devolve quantas foram aceitas. Qualquer falha que não seja
+    // a recusa por valor excedido (bloqueio expirado, deadlock) reprova o teste
+    private int executarConcorrentes(Runnable escrita) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                Callable<Integer> tarefa = () -> {
+                    largada.await();
+                    int aceitas = 0;
+                    for (int i = 0; i < TENTATIVAS_POR_THREAD; i++) {
+                        try {
+                            escrita.run();
+                            aceitas++;
+                        } catch (RegraNegocioException e) {
+                            assertEquals(CodigoErro.VALOR_EXCEDIDO, e.getCodigo(), e.getMessage());
+                        }
+                    }
+                    return aceitas;
+                };
+                resultados.add(executor.submit(tarefa));
+            }
+            largada.countDown();
+            
+            int aceitas = 0;
+            for (Future<Integer> resultado : resultados) {
+                aceitas += resultado.get();
+            }
+            assertTrue(aceitas < THREADS * TENTATIVAS_POR_THREAD, "o teto deveria recusar parte das escritas");
+            return aceitas;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
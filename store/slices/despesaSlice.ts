@@ -4,6 +4,7 @@ import {
   type PayloadAction,
 } from "@reduxjs/toolkit";
 import axios from "axios";
+import { fetchAllPages } from "@/utils/pagination";
 
 export interface Despesa {
   id?: number;
@@ -81,8 +82,8 @@ export const fetchDespesas = createAsyncThunk(
   "despesas/fetchDespesas",
   async (_, { rejectWithValue }) => {
     try {
-      const response = await api.get("/despesas");
-      return response.data.map(formatDespesaFromBackend);
+      const despesas = await fetchAllPages(api, "/despesas");
+      return despesas.map(formatDespesaFromBackend);
     } catch (error: any) {
       return rejectWithValue(
         error.response?.data?.message || "Erro ao buscar despesas"
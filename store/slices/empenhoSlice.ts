@@ -4,6 +4,7 @@ import {
   type PayloadAction,
 } from "@reduxjs/toolkit";
 import axios from "axios";
+import { fetchAllPages } from "@/utils/pagination";
 
 export interface Empenho {
   id?: number;
@@ -66,8 +67,8 @@ export const fetchEmpenhos = createAsyncThunk(
   "empenhos/fetchEmpenhos",
   async (_, { rejectWithValue }) => {
     try {
-      const response = await api.get("/empenhos");
-      return response.data.map(formatEmpenhoFromBackend);
+      const empenhos = await fetchAllPages(api, "/empenhos");
+      return empenhos.map(formatEmpenhoFromBackend);
     } catch (error: any) {
       return rejectWithValue(
         error.response?.data?.message || "Erro ao buscar empenhos"
@@ -4,6 +4,7 @@ import {
   type PayloadAction,
 } from "@reduxjs/toolkit";
 import axios from "axios";
+import { fetchAllPages } from "@/utils/pagination";
 
 export interface Pagamento {
   id?: number;
@@ -66,8 +67,8 @@ export const fetchPagamentos = createAsyncThunk(
   "pagamentos/fetchPagamentos",
   async (_, { rejectWithValue }) => {
     try {
-      const response = await api.get("/pagamentos");
-      return response.data.map(formatPagamentoFromBackend);
+      const pagamentos = await fetchAllPages(api, "/pagamentos");
+      return pagamentos.map(formatPagamentoFromBackend);
     } catch (error: any) {
       return rejectWithValue(
         error.response?.data?.message || "Erro ao buscar pagamentos"
@@ -0,0 +1,19 @@
+import type { AxiosInstance } from "axios"
+
+// Listagens do backend paginadas por cursor: o id do último item da página vem no cabeçalho
+// X-Next-Cursor e vai em "after" na próxima requisição. Sem o cabeçalho, era a última página.
+// Cada página com o maior tamanho aceito pelo backend (Paginacao.LIMITE_MAXIMO)
+const PAGE_SIZE = 500
+
+export async function fetchAllPages<T = any>(api: AxiosInstance, url: string): Promise<T[]> {
+  const items: T[] = []
+  let after: string | undefined
+  do {
+    const response = await api.get<T[]>(url, {
+      params: after ? { limit: PAGE_SIZE, after } : { limit: PAGE_SIZE },
+    })
+    items.push(...response.data)
+    after = response.headers["x-next-cursor"] as string | undefined
+  } while (after)
+  return items
+}